@@ -0,0 +1,137 @@
+#! /usr/bin/perl -w
+#------------------------------------------------------------------------------
+# Authors: agent
+# Date: 10/18/26
+# Description: this is the asset packer for cleanwatergame it puts everything
+# an act needs (compiled levels, images and sounds) into one .pak file that the
+# game maps into memory. The act directory is laid out like assets/, i.e.
+# level/act2scene1.lvl, gfx/game/ground.png, sfx/jump.mp3, and the entries
+# keep those names. Run LevelCompiler.pl on the act's level directory first.
+#
+# usage: AssetPacker.pl <path> <pack>
+#                -<path> = The directory holding the act's files
+#                -<pack> = The pack to write
+#                          i.e. revolutionh2o/assets/pack/act2.pak
+#
+# .pak layout (big endian, read by level/AssetPack.java):
+#   header:  "H2OP" | version (short) | entry count (short)
+#   names:   sorted, for each entry: name length (byte) | name (ascii)
+#            padded with zeros to a multiple of 4 bytes
+#   index:   for each entry, in the same order: offset (int) | length (int)
+#            the offset is from the start of the pack
+#   data:    the files as they are, each one starting on a 16 byte boundary
+#
+#------------------------------------------------------------------------------
+
+use strict;
+use File::Find;
+
+#------------------------------------------------------------------------------
+# Variables:
+#------------------------------------------------------------------------------
+my $magic = "H2OP";
+my $version = 1;
+my $alignment = 16;
+my $path = "";
+my $packPath = "";
+
+
+#------------------------------------------------------------------------------
+# Check user input:
+#------------------------------------------------------------------------------
+my $numvars = scalar(@ARGV);
+
+if($numvars == 2)
+{
+	$path = $ARGV[0];
+	$packPath = $ARGV[1];
+
+	if (!(-d $path)) {
+		print("Cannot find the directory");
+		exit(0);
+	}
+}
+else
+{
+	showHelp();
+	exit(0);
+}
+
+
+#------------------------------------------------------------------------------
+# Main:
+#------------------------------------------------------------------------------
+
+$path =~ s/\/+$//;
+my @names = ();
+find(sub {
+	#hidden files and directories stay out of the pack
+	if (/^\./ && $_ ne ".") {
+		$File::Find::prune = 1 if (-d $_);
+		return;
+	}
+	return unless (-f $_);
+	my $name = substr($File::Find::name, length($path) + 1);
+	die "Name too long: $name\n\n" if (length($name) > 255);
+	push(@names, $name);
+}, $path);
+@names = sort(@names);
+die "Too many files in $path\n\n" if (scalar(@names) > 65535);
+
+my $header = pack("a4 s> s>", $magic, $version, scalar(@names));
+foreach my $name (@names) {
+	$header .= pack("C a*", length($name), $name);
+}
+$header .= "\0" x ((4 - length($header) % 4) % 4);
+
+my $offset = align(length($header) + 8 * scalar(@names));
+my $index = "";
+my $data = "";
+foreach my $name (@names) {
+	open(FILE, "<$path/$name") or die "Faild to open $path/$name\n\n";
+	binmode(FILE);
+	my $contents = do { local $/; <FILE> };
+	close(FILE);
+	$contents = "" unless defined $contents;
+
+	$index .= pack("l> l>", $offset, length($contents));
+	$data .= $contents;
+	$data .= "\0" x (align(length($contents)) - length($contents));
+	$offset += align(length($contents));
+}
+
+my $pack = $header.$index;
+$pack .= "\0" x (align(length($pack)) - length($pack));
+$pack .= $data;
+
+open(PAK, ">$packPath") or die "Faild to open $packPath\n\n";
+binmode(PAK);
+print PAK $pack;
+close(PAK);
+
+print("$packPath: ".scalar(@names)." entries, ".length($pack)." bytes\n");
+
+exit(0);
+
+#-------------------End main---------------------------------------------------
+
+#------------------------------------------------------------------------------
+# Functions:
+#------------------------------------------------------------------------------
+
+#------------------------------------------------------------------------------
+# This rounds a length up to the entry alignment
+sub align
+{
+	my ($length) = @_;
+	return int(($length + $alignment - 1) / $alignment) * $alignment;
+}
+
+#------------------------------------------------------------------------------
+#this shows the help
+sub showHelp
+{
+	print("AssetPacker.pl <path> <pack>\n");
+	print("           -<path> = The directory holding the act's files\n");
+	print("           -<pack> = The pack to write\n\n");
+}
@@ -0,0 +1,325 @@
+#! /usr/bin/perl -w
+#------------------------------------------------------------------------------
+# Authors: agent
+# Date: 10/18/26
+# Description: this is the level analyzer for cleanwatergame it slides the
+# camera window along each level xml and reports what the game has to handle
+# at every position: entities, static and dynamic bodies, sprites drawn,
+# textures touched and the collision checks run every frame. A level fails
+# when any window goes over one of the budgets.
+#
+# usage: LevelAnalyzer.pl [options] <path>
+#                -<path> = The directory holding the level xml files
+#                          i.e. revolutionh2o/assets/level/
+#
+# options:
+#                -v            = print every window, not just the peaks
+#                -step <px>    = how far the window moves each time (100)
+#                -entities <n> = budget for live entities (150)
+#                -static <n>   = budget for static bodies (30)
+#                -dynamic <n>  = budget for dynamic bodies (30)
+#                -sprites <n>  = budget for sprites drawn (100)
+#                -tiles <n>    = budget for live tiles, what the tile batch holds (150)
+#                -textures <n> = budget for textures touched (10)
+#                -checks <n>   = budget for collision checks per frame (150)
+#
+# The model follows the game: entities are live from 200px left of the
+# camera to 200px right of it (level/LevelStreamer.java), only the ones on
+# screen are drawn, ground, hill and floating platform tiles share merged
+# bodies (level/ColliderMerger.java, counted as its boxes, which is at most
+# one body per box) and are drawn together from a batch with room for the
+# tiles budget (scene/GameScene.java), and the sensors are tested against
+# the player once a frame when they are within the trigger reach of it
+# (level/TriggerIndex.java). Triggers are only records there, they have no entity. The ones with a body
+# are not checked, Box2D reports their contacts with the player
+# (level/ContactEventQueue.java). The player is always in the middle of the
+# screen.
+#
+# exits with 1 if a level is over budget
+#------------------------------------------------------------------------------
+
+use strict;
+use sort 'stable';
+
+#------------------------------------------------------------------------------
+# Variables:
+#------------------------------------------------------------------------------
+my $windowWidth = 800;
+my $lookahead = 200;
+my $despawnMargin = 200;
+my $step = 100;
+my $triggerReach = 30;
+my $playerHalfWidth = 33;
+my $verbose = 0;
+my $path = "";
+
+my %budgets = (
+	"entities" => 150,
+	"static" => 30,
+	"dynamic" => 30,
+	"sprites" => 100,
+	"tiles" => 150,
+	"textures" => 10,
+	"checks" => 150,
+);
+my @metrics = ("entities", "static", "dynamic", "sprites", "tiles", "textures", "checks");
+
+#what each entity type costs: texture (empty when not drawn), texture width,
+#body (merged, static, dynamic or none) and collision checks per frame
+my %types = (
+	"ground"              => ["ground.png", 100, "merged", 0],
+	"hill"                => ["hill.png", 100, "merged", 0],
+	"floatingPlatform"    => ["floating_platform_ground.png", 100, "merged", 0],
+	"fallingPlatform"     => ["falling_platform_large.png", 100, "dynamic", 0],
+	"fallingPlatform2"    => ["falling_platform_small.png", 50, "dynamic", 0],
+	"alligator"           => ["alligator_blink_sprite.png", 84, "static", 0],
+	"player"              => ["player_run_sprite.png", 66, "dynamic", 0],
+	"collectable"         => ["water.png", 14, "none", 1],
+	"twine"               => ["twine.png", 27, "none", 1],
+	"stone"               => ["stone.png", 31, "none", 1],
+	"mud"                 => ["mud.png", 31, "none", 1],
+	"wood"                => ["wood.png", 45, "none", 1],
+	"winTrigger"          => ["", 0, "none", 1],
+	"jumpTutorialTrigger" => ["", 0, "none", 1],
+	"dashTutorialTrigger" => ["", 0, "none", 1],
+);
+
+#texture heights of the merged tiles, the bodies are made from the textures
+my %tileHeights = (
+	"ground" => 50,
+	"hill" => 200,
+	"floatingPlatform" => 30,
+);
+
+
+#------------------------------------------------------------------------------
+# Check user input:
+#------------------------------------------------------------------------------
+while (scalar(@ARGV) > 1) {
+	my $option = shift(@ARGV);
+	if ($option eq "-v") {
+		$verbose = 1;
+	} elsif ($option eq "-step") {
+		$step = shift(@ARGV);
+	} elsif ($option =~ /^-(\w+)$/ && defined $budgets{$1}) {
+		$budgets{$1} = shift(@ARGV);
+	} else {
+		showHelp();
+		exit(0);
+	}
+}
+
+if(scalar(@ARGV) == 1)
+{
+	$path = $ARGV[0];
+
+	if (!(-d $path)) {
+		print("Cannot find the directory");
+		exit(0);
+	}
+}
+else
+{
+	showHelp();
+	exit(0);
+}
+
+
+#------------------------------------------------------------------------------
+# Main:
+#------------------------------------------------------------------------------
+
+opendir(DIR, $path) or die "Faild to open $path\n\n";
+my @levels = sort(grep(/\.xml$/, readdir(DIR)));
+closedir(DIR);
+
+my $failed = 0;
+foreach my $level (@levels) {
+	$failed += analyzeLevel($path."/".$level);
+}
+
+print("\n".scalar(@levels)." levels, $failed over budget\n");
+exit($failed > 0 ? 1 : 0);
+
+#-------------------End main---------------------------------------------------
+
+#------------------------------------------------------------------------------
+# Functions:
+#------------------------------------------------------------------------------
+
+#------------------------------------------------------------------------------
+# This slides the window along one level, prints the report and returns 1 if
+# the level is over budget
+sub analyzeLevel
+{
+	my ($xmlPath) = @_;
+	my ($width, $entities) = readLevel($xmlPath);
+	my @colliders = mergeColliders($entities);
+
+	my %peaks = ();
+	my %peakX = ();
+	my @over = ();
+	foreach my $metric (@metrics) {
+		$peaks{$metric} = 0;
+		$peakX{$metric} = 0;
+	}
+
+	print("\n$xmlPath ($width px, ".scalar(@$entities)." entities, ".scalar(@colliders)." merged colliders)\n");
+	if ($verbose) {
+		printf("%8s %9s %7s %8s %8s %6s %9s %7s\n", "x", "entities", "static", "dynamic", "sprites", "tiles", "textures", "checks");
+	}
+
+	for (my $x = 0; $x == 0 || $x + $windowWidth <= $width; $x += $step) {
+		my %counts = analyzeWindow($x, $entities, \@colliders);
+		if ($verbose) {
+			printf("%8d %9d %7d %8d %8d %6d %9d %7d\n", $x, map { $counts{$_} } @metrics);
+		}
+		foreach my $metric (@metrics) {
+			if ($counts{$metric} > $peaks{$metric}) {
+				$peaks{$metric} = $counts{$metric};
+				$peakX{$metric} = $x;
+			}
+			if ($counts{$metric} > $budgets{$metric}) {
+				push(@over, "$metric $counts{$metric} > $budgets{$metric} at x=$x");
+			}
+		}
+	}
+
+	foreach my $metric (@metrics) {
+		printf("  peak %-9s %4d at x=%-6d (budget %d)\n", $metric, $peaks{$metric}, $peakX{$metric}, $budgets{$metric});
+	}
+	if (scalar(@over) > 0) {
+		print("  OVER BUDGET:\n");
+		foreach my $line (@over) {
+			print("    $line\n");
+		}
+		return 1;
+	}
+	print("  ok\n");
+	return 0;
+}
+
+#------------------------------------------------------------------------------
+# This counts what the game handles with the camera's left edge at x
+sub analyzeWindow
+{
+	my ($x, $entities, $colliders) = @_;
+	my $liveLeft = $x - $despawnMargin;
+	my $liveRight = $x + $windowWidth + $lookahead;
+	my %counts = ();
+	my %textures = ();
+	foreach my $metric (@metrics) {
+		$counts{$metric} = 0;
+	}
+
+	foreach my $entity (@$entities) {
+		my ($texture, $textureWidth, $body, $checks) = @{$types{$entity->{"type"}}};
+		my $halfWidth = ($texture eq "" ? $entity->{"width"} : $textureWidth) / 2;
+		#the camera follows the player, it is always on screen
+		my $entityX = ($entity->{"type"} eq "player") ? $x + $windowWidth / 2 : $entity->{"x"};
+		next if ($entityX + $halfWidth < $liveLeft || $entityX - $halfWidth > $liveRight);
+
+		#triggers are not drawn and have no entity
+		$counts{"entities"}++ unless ($texture eq "");
+		#the trigger index finds the records, so it goes by their own width
+		my $playerX = $x + $windowWidth / 2;
+		if ($entity->{"x"} + $entity->{"width"} / 2 >= $playerX - $playerHalfWidth - $triggerReach && $entity->{"x"} - $entity->{"width"} / 2 <= $playerX + $playerHalfWidth + $triggerReach) {
+			$counts{"checks"} += $checks;
+		}
+		$counts{"static"}++ if ($body eq "static");
+		$counts{"dynamic"}++ if ($body eq "dynamic");
+		$counts{"tiles"}++ if (defined $tileHeights{$entity->{"type"}});
+
+		if ($texture ne "" && $entityX + $halfWidth >= $x && $entityX - $halfWidth <= $x + $windowWidth) {
+			$counts{"sprites"}++;
+			$textures{$texture} = 1;
+		}
+	}
+	foreach my $collider (@$colliders) {
+		next if ($collider->[1] < $liveLeft || $collider->[0] > $liveRight);
+		$counts{"static"}++;
+	}
+	$counts{"textures"} = scalar(keys(%textures));
+	return %counts;
+}
+
+#------------------------------------------------------------------------------
+# This joins the ground, hill and floating platform tiles into boxes the way
+# ColliderMerger does: same kind of collider, same top and bottom, touching.
+# Returns [left, right] of each box.
+sub mergeColliders
+{
+	my ($entities) = @_;
+	my @boxes = ();
+	foreach my $entity (@$entities) {
+		my $height = $tileHeights{$entity->{"type"}};
+		next unless defined $height;
+		my $kind = ($entity->{"type"} eq "floatingPlatform") ? "test" : "ground";
+		my $left = $entity->{"x"} - 50;
+		my $bottom = $entity->{"y"} - $height / 2;
+		my $merged = 0;
+		foreach my $box (reverse(@boxes)) {
+			if ($box->[2] eq $kind && $box->[3] == $bottom && $box->[4] == $bottom + $height && $box->[0] <= $left && $left <= $box->[1]) {
+				$box->[1] = $left + 100 if ($left + 100 > $box->[1]);
+				$merged = 1;
+				last;
+			}
+		}
+		push(@boxes, [$left, $left + 100, $kind, $bottom, $bottom + $height]) unless $merged;
+	}
+	return @boxes;
+}
+
+#------------------------------------------------------------------------------
+# This reads the level width and entities from a level xml
+sub readLevel
+{
+	my ($xmlPath) = @_;
+	open(XML, "<$xmlPath") or die "Faild to open $xmlPath\n\n";
+	my $xml = do { local $/; <XML> };
+	close(XML);
+
+	#commented out entities are not in the level
+	$xml =~ s/<!--.*?-->//gs;
+
+	my %level = readAttributes($xml =~ /<level\s+([^>]*)>/);
+	die "No <level> tag in $xmlPath\n\n" unless defined $level{"width"};
+
+	my @entities = ();
+	while ($xml =~ /<entity\s+([^>]*?)\/?>/g) {
+		my %entity = readAttributes($1);
+		foreach my $key ("x", "y", "width", "height", "type") {
+			die "Entity without $key in $xmlPath\n\n" unless defined $entity{$key};
+		}
+		die "Unknown entity type $entity{'type'} in $xmlPath\n\n" unless defined $types{$entity{"type"}};
+		push(@entities, \%entity);
+	}
+
+	#the game merges the tiles in x order
+	@entities = sort { $a->{"x"} <=> $b->{"x"} } @entities;
+	return ($level{"width"}, \@entities);
+}
+
+#------------------------------------------------------------------------------
+# This turns the attribute text of a tag into a hash
+sub readAttributes
+{
+	my ($text) = @_;
+	my %attributes = ();
+	$text = "" unless defined $text;
+	while ($text =~ /(\w+)\s*=\s*"([^"]*)"/g) {
+		$attributes{$1} = $2;
+	}
+	return %attributes;
+}
+
+#------------------------------------------------------------------------------
+#this shows the help
+sub showHelp
+{
+	print("LevelAnalyzer.pl [options] <path>\n");
+	print("           -<path> = The directory holding the level xml files\n");
+	print("           -v = print every window, not just the peaks\n");
+	print("           -step <px> = how far the window moves each time\n");
+	print("           -entities|-static|-dynamic|-sprites|-textures|-checks <n> = budgets\n\n");
+}
@@ -0,0 +1,150 @@
+#! /usr/bin/perl -w
+#------------------------------------------------------------------------------
+# Authors: agent
+# Date: 10/18/26
+# Description: this is the level compiler for cleanwatergame it turns the level
+# xml files into the binary .lvl files that the game loads. The xml stays the
+# authoring format, run this after editing a level.
+#
+# usage: LevelCompiler.pl <path>
+#                -<path> = The directory holding the level xml files
+#                          i.e. revolutionh2o/assets/level/
+#
+# .lvl layout (big endian, read by level/LevelLoader.java):
+#   header:  "H2OL" | version (short) | type count (short)
+#            | level width (int) | level height (int) | entity count (int)
+#   types:   for each type: name length (byte) | name (ascii)
+#            padded with zeros to a multiple of 4 bytes
+#   records: sorted by x, 12 bytes each:
+#            x (int) | y (short) | width (short) | height (short) | type id (short)
+#
+#------------------------------------------------------------------------------
+
+use strict;
+use sort 'stable';
+
+#------------------------------------------------------------------------------
+# Variables:
+#------------------------------------------------------------------------------
+my $magic = "H2OL";
+my $version = 1;
+my $path = "";
+
+
+#------------------------------------------------------------------------------
+# Check user input:
+#------------------------------------------------------------------------------
+my $numvars = scalar(@ARGV);
+
+if($numvars == 1)
+{
+	$path = $ARGV[0];
+
+	if (!(-d $path)) {
+		print("Cannot find the directory");
+		exit(0);
+	}
+}
+else
+{
+	showHelp();
+	exit(0);
+}
+
+
+#------------------------------------------------------------------------------
+# Main:
+#------------------------------------------------------------------------------
+
+opendir(DIR, $path) or die "Faild to open $path\n\n";
+my @levels = sort(grep(/\.xml$/, readdir(DIR)));
+closedir(DIR);
+
+foreach my $level (@levels) {
+	compileLevel($path."/".$level);
+}
+
+
+exit(0);
+
+#-------------------End main---------------------------------------------------
+
+#------------------------------------------------------------------------------
+# Functions:
+#------------------------------------------------------------------------------
+
+#------------------------------------------------------------------------------
+# This reads one level xml and writes the .lvl file next to it
+sub compileLevel
+{
+	my ($xmlPath) = @_;
+	my $lvlPath = $xmlPath;
+	$lvlPath =~ s/\.xml$/\.lvl/;
+
+	open(XML, "<$xmlPath") or die "Faild to open $xmlPath\n\n";
+	my $xml = do { local $/; <XML> };
+	close(XML);
+
+	#commented out entities must not end up in the level
+	$xml =~ s/<!--.*?-->//gs;
+
+	my %level = readAttributes($xml =~ /<level\s+([^>]*)>/);
+	die "No <level> tag in $xmlPath\n\n" unless (defined $level{"width"} && defined $level{"height"});
+
+	my @entities = ();
+	my @types = ();
+	my %typeIds = ();
+
+	while ($xml =~ /<entity\s+([^>]*?)\/?>/g) {
+		my %entity = readAttributes($1);
+		foreach my $key ("x", "y", "width", "height", "type") {
+			die "Entity without $key in $xmlPath\n\n" unless defined $entity{$key};
+		}
+		if (!defined $typeIds{$entity{"type"}}) {
+			$typeIds{$entity{"type"}} = scalar(@types);
+			push(@types, $entity{"type"});
+		}
+		$entity{"id"} = $typeIds{$entity{"type"}};
+		push(@entities, \%entity);
+	}
+
+	#the game expects the entities in x order
+	@entities = sort { $a->{"x"} <=> $b->{"x"} } @entities;
+
+	my $data = pack("a4 s> s> l> l> l>", $magic, $version, scalar(@types), $level{"width"}, $level{"height"}, scalar(@entities));
+	foreach my $type (@types) {
+		$data .= pack("C a*", length($type), $type);
+	}
+	$data .= "\0" x ((4 - length($data) % 4) % 4);
+	foreach my $entity (@entities) {
+		$data .= pack("l> s> s> s> s>", $entity->{"x"}, $entity->{"y"}, $entity->{"width"}, $entity->{"height"}, $entity->{"id"});
+	}
+
+	open(LVL, ">$lvlPath") or die "Faild to open $lvlPath\n\n";
+	binmode(LVL);
+	print LVL $data;
+	close(LVL);
+
+	print("$lvlPath: ".scalar(@entities)." entities, ".scalar(@types)." types, ".length($data)." bytes\n");
+}
+
+#------------------------------------------------------------------------------
+# This turns the attribute text of a tag into a hash
+sub readAttributes
+{
+	my ($text) = @_;
+	my %attributes = ();
+	$text = "" unless defined $text;
+	while ($text =~ /(\w+)\s*=\s*"([^"]*)"/g) {
+		$attributes{$1} = $2;
+	}
+	return %attributes;
+}
+
+#------------------------------------------------------------------------------
+#this shows the help
+sub showHelp
+{
+	print("LevelCompiler.pl <path>\n");
+	print("           -<path> = The directory holding the level xml files\n\n");
+}
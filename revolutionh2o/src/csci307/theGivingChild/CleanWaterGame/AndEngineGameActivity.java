@@ -6,6 +6,11 @@
 *
 * History:
 *    5/31/13 original
+*    10/18/26 add a level catalog and an in-memory progress snapshot (agent)
+*    10/18/26 schedule delayed game events on one keyed timer wheel (agent)
+*    10/18/26 step physics on its own thread while the frame is drawn (agent)
+*    10/18/26 draw sprites between fixed physics steps (agent)
+*    10/18/26 stop allocating in the player's per-step and per-action paths (agent)
 */
 package csci307.theGivingChild.CleanWaterGame;
 
@@ -14,7 +19,6 @@ import java.io.IOException;
 import org.andengine.audio.music.Music;
 import org.andengine.audio.sound.Sound;
 import org.andengine.engine.Engine;
-import org.andengine.engine.FixedStepEngine;
 import org.andengine.engine.camera.BoundCamera;
 import org.andengine.engine.options.EngineOptions;
 import org.andengine.engine.options.ScreenOrientation;
@@ -23,6 +27,7 @@ import org.andengine.entity.scene.Scene;
 import org.andengine.ui.activity.BaseGameActivity;
 
 import android.view.KeyEvent;
+import csci307.theGivingChild.CleanWaterGame.manager.LevelManager;
 import csci307.theGivingChild.CleanWaterGame.manager.ResourceManager;
 import csci307.theGivingChild.CleanWaterGame.manager.SceneManager;
 import csci307.theGivingChild.CleanWaterGame.scene.GameScene;
@@ -31,6 +36,10 @@ import csci307.theGivingChild.CleanWaterGame.scene.GameScene.PausedType;
 
 public class AndEngineGameActivity extends BaseGameActivity {
 	
+	private static final int UPDATES_PER_SECOND = 60;
+	//cores needed to step the physics on its own thread
+	private static final int PIPELINED_PHYSICS_PROCESSORS = 4;
+
 	private BoundCamera camera;
 	private ResourceManager resourceManager;
 	
@@ -40,7 +49,18 @@ public class AndEngineGameActivity extends BaseGameActivity {
 	
 	@Override
 	public Engine onCreateEngine(EngineOptions pEngineOptions) {
-		return new FixedStepEngine(pEngineOptions, 60);
+		//a display faster than the 60 updates would show each of them more than once, there the engine updates once
+		//per frame drawn and the sprites are drawn between the physics steps
+		final float refreshRate = getWindowManager().getDefaultDisplay().getRefreshRate();
+		FrameGovernor.getInstance().setFrameRate(refreshRate);
+		if (refreshRate > UPDATES_PER_SECOND + 1) {
+			return new GameEngine(pEngineOptions, 0);
+		}
+		//the physics steps on its own thread only where the world steps once per update, see GameScene.createPhysics
+		if (Runtime.getRuntime().availableProcessors() >= PIPELINED_PHYSICS_PROCESSORS && GameScene.getStepsPerSecond(this) == UPDATES_PER_SECOND) {
+			return new PipelinedEngine(pEngineOptions, UPDATES_PER_SECOND);
+		}
+		return new GameEngine(pEngineOptions, UPDATES_PER_SECOND);
 	}
 	
 	@Override
@@ -48,6 +68,7 @@ public class AndEngineGameActivity extends BaseGameActivity {
 	{
 		super.onResume();
 		goingOtheract = false;
+		ResourceManager.getInstance().reloadMute();
 		MUTE_SOUND_EFX = CleanWaterGame.getInstance()
 				.getSharedPreferences(GameLauncher.PREFERENCE_KEY, MODE_MULTI_PROCESS)
 				.getBoolean(GameLauncher.PREFERENCE_KEY_MUTE, false);
@@ -101,6 +122,10 @@ public class AndEngineGameActivity extends BaseGameActivity {
 	public void onCreateResources(OnCreateResourcesCallback pOnCreateResourcesCallback)	throws IOException {
 		ResourceManager.prepareManager(mEngine, this, camera, getVertexBufferObjectManager());
 		resourceManager = ResourceManager.getInstance();
+		//runs the delayed tasks of the whole game, whichever scene is showing
+		mEngine.registerUpdateHandler(Scheduler.getInstance());
+		//the level select screen reads the levels and the progress from here
+		LevelManager.getInstance().loadInBackground(getAssets());
 		pOnCreateResourcesCallback.onCreateResourcesFinished();
 
 	}
@@ -7,6 +7,7 @@
 *
 * History:
 *    5/31/13 original 1.0
+*    10/18/26 add a ring-buffer trace of game loop events (agent)
 */
 package csci307.theGivingChild.CleanWaterGame;
 
@@ -21,7 +22,7 @@ import org.acra.annotation.*;
 @ReportsCrashes(
     formKey="",//depreciated not used but still required
     mailTo="thegivingchild@gmail.com",
-    customReportContent={ReportField.APP_VERSION_CODE, ReportField.ANDROID_VERSION, ReportField.STACK_TRACE},
+    customReportContent={ReportField.APP_VERSION_CODE, ReportField.ANDROID_VERSION, ReportField.STACK_TRACE, ReportField.CUSTOM_DATA},
     mode=ReportingInteractionMode.TOAST,
     resToastText=40
 )
@@ -39,6 +40,17 @@ public class CleanWaterGame extends Application {
 		instance = this;
 		//This initializes the bug reporting
 		ACRA.init(this);
+		//the last game loop events go with the report, they are only put together when it crashes
+		final Thread.UncaughtExceptionHandler acraHandler = Thread.getDefaultUncaughtExceptionHandler();
+		Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+			@Override
+			public void uncaughtException(Thread thread, Throwable throwable) {
+				if (Trace.INFO) {
+					ACRA.getErrorReporter().putCustomData("trace", Trace.dump());
+				}
+				acraHandler.uncaughtException(thread, throwable);
+			}
+		});
 		
 		 //Set menu music source
         try {
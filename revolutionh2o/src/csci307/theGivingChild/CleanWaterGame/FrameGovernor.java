@@ -0,0 +1,118 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: Keeps the game within its frame budget on weak phones. The engine tells it how long each frame's
+*              update and draw took, and when the average stays over the budget it lowers the quality one tier,
+*              when it stays well under for a while it raises it again. The scene being played hears about
+*              each change and turns its effects off or on. The tier is kept from level to level.
+*
+* History:
+*    10/18/26 original 1.0
+*    10/18/26 the budget follows the display's refresh rate, the update time excludes waiting for physics
+*/
+package csci307.theGivingChild.CleanWaterGame;
+
+public final class FrameGovernor {
+
+	//the tiers, each one also has what the ones above it turned off
+	public static final int QUALITY_FULL = 0;
+	//no collectable pulse or alligator animation
+	public static final int QUALITY_STILL = 1;
+	//no cloud layer over the background
+	public static final int QUALITY_NO_CLOUDS = 2;
+	//fewer solver iterations
+	public static final int QUALITY_LOW = 3;
+
+	//frames a second when the display does not say
+	private static final float DEFAULT_FRAME_RATE = 60;
+
+	//the average has to stay over the first to lower the quality, under the second to raise it
+	private static final float DOWNGRADE_LOAD = 0.9f;
+	private static final float UPGRADE_LOAD = 0.6f;
+	//frames since the last change before the next one, raising it waits longer so it does not flip back and forth
+	private static final int DOWNGRADE_FRAMES = 30;
+	private static final int UPGRADE_FRAMES = 300;
+	//weight of the newest frame in the average
+	private static final float SMOOTHING = 0.1f;
+
+	private static final FrameGovernor INSTANCE = new FrameGovernor();
+
+	public interface IQualityListener {
+		public void onQualityChanged(int quality);
+	}
+
+	//milliseconds of update and draw a frame can take
+	private float budget = 1000f / DEFAULT_FRAME_RATE;
+	private int quality = QUALITY_FULL;
+	private float averageMilliseconds = 0;
+	private int framesSinceChange = 0;
+	private long drawNanoseconds = 0;
+	private IQualityListener listener;
+
+	private FrameGovernor() {
+	}
+
+	public static FrameGovernor getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @param framesPerSecond : the display's refresh rate, each frame has to be updated and drawn in its time
+	 */
+	public void setFrameRate(float framesPerSecond) {
+		budget = 1000f / ((framesPerSecond > 0) ? framesPerSecond : DEFAULT_FRAME_RATE);
+	}
+
+	public int getQuality() {
+		return quality;
+	}
+
+	/**
+	 * @return the average milliseconds of update and draw per frame
+	 */
+	public float getAverageMilliseconds() {
+		return averageMilliseconds;
+	}
+
+	/**
+	 * @param listener : told about each change of tier, on the update thread. null for nobody
+	 */
+	public void setListener(IQualityListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Called by the engine on the GL thread, the engine lock keeps it from running during an update
+	 */
+	public void onDraw(long nanoseconds) {
+		drawNanoseconds = nanoseconds;
+	}
+
+	/**
+	 * Called by the engine on the update thread, once per frame
+	 * @param nanoseconds : the time the frame's update took, without the time it waited for the physics thread
+	 */
+	public void onUpdate(long nanoseconds) {
+		final float milliseconds = (nanoseconds + drawNanoseconds) / 1000000f;
+		averageMilliseconds += (milliseconds - averageMilliseconds) * SMOOTHING;
+		framesSinceChange++;
+
+		if (averageMilliseconds > budget * DOWNGRADE_LOAD && framesSinceChange >= DOWNGRADE_FRAMES && quality < QUALITY_LOW) {
+			setQuality(quality + 1);
+		} else if (averageMilliseconds < budget * UPGRADE_LOAD && framesSinceChange >= UPGRADE_FRAMES && quality > QUALITY_FULL) {
+			setQuality(quality - 1);
+		}
+	}
+
+	private void setQuality(int quality) {
+		this.quality = quality;
+		framesSinceChange = 0;
+		if (Trace.INFO) {
+			Trace.event(Trace.QUALITY, quality, (int) (averageMilliseconds * 1000), 0);
+		}
+		if (listener != null) {
+			listener.onQualityChanged(quality);
+		}
+	}
+}
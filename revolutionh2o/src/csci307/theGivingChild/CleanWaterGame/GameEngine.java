@@ -0,0 +1,79 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: The game's engine. It updates at a fixed rate like the FixedStepEngine, or once per frame drawn
+*              with the real time elapsed so the frame rate follows the display, the physics world then keeps
+*              its own fixed step (see InterpolatedPhysicsWorld). It times each frame's update and draw for
+*              the FrameGovernor.
+*
+* History:
+*    10/18/26 original 1.0
+*/
+package csci307.theGivingChild.CleanWaterGame;
+
+import org.andengine.engine.Engine;
+import org.andengine.engine.camera.Camera;
+import org.andengine.engine.options.EngineOptions;
+import org.andengine.opengl.util.GLState;
+
+public class GameEngine extends Engine {
+
+	private static final long NANOSECONDS_PER_SECOND = 1000000000;
+
+	//0 to update once per frame drawn
+	private final long stepLength;
+	private long nanosecondsElapsedAccumulator = 0;
+	//time spent in this frame's updates
+	private long updateNanoseconds = 0;
+
+	/**
+	 * @param pStepsPerSecond : updates per second, 0 to update once per frame drawn with the real time elapsed
+	 */
+	public GameEngine(EngineOptions pEngineOptions, int pStepsPerSecond) {
+		super(pEngineOptions);
+		this.stepLength = (pStepsPerSecond == 0) ? 0 : NANOSECONDS_PER_SECOND / pStepsPerSecond;
+	}
+
+	/**
+	 * @return false if it updates once per frame drawn
+	 */
+	public boolean isFixedStep() {
+		return stepLength != 0;
+	}
+
+	@Override
+	public void onUpdate(long pNanosecondsElapsed) throws InterruptedException {
+		updateNanoseconds = 0;
+		if (stepLength == 0) {
+			onStep(pNanosecondsElapsed);
+		} else {
+			nanosecondsElapsedAccumulator += pNanosecondsElapsed;
+			while (nanosecondsElapsedAccumulator >= stepLength) {
+				onStep(stepLength);
+				nanosecondsElapsedAccumulator -= stepLength;
+			}
+		}
+		FrameGovernor.getInstance().onUpdate(updateNanoseconds);
+	}
+
+	/**
+	 * One update of the scene and the handlers, once per frame or once per fixed step. Only this is timed, not
+	 * what a subclass waits for around it
+	 */
+	protected void onStep(long pNanosecondsElapsed) throws InterruptedException {
+		final long start = System.nanoTime();
+		super.onUpdate(pNanosecondsElapsed);
+		updateNanoseconds += System.nanoTime() - start;
+	}
+
+	/**
+	 * Only the scene's drawing is timed, onDrawFrame also waits for the update
+	 */
+	@Override
+	protected void onDrawScene(GLState pGLState, Camera pCamera) {
+		final long start = System.nanoTime();
+		super.onDrawScene(pGLState, pCamera);
+		FrameGovernor.getInstance().onDraw(System.nanoTime() - start);
+	}
+}
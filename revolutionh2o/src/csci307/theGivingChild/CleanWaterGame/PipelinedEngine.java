@@ -0,0 +1,59 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: The engine of the devices that step the physics on their own thread. When a level has a
+*              PipelinedPhysicsWorld set on it, the world's step is started once each fixed update is done,
+*              to run on its own thread while the frame is drawn, and waited for before the next update.
+*
+* History:
+*    10/18/26 original 1.0
+*    10/18/26 updates once per frame drawn when it has no steps per second
+*    10/18/26 times the frames for the FrameGovernor
+*    10/18/26 the updates and their timing moved to GameEngine, it waits for the step before every update
+*/
+package csci307.theGivingChild.CleanWaterGame;
+
+import org.andengine.engine.options.EngineOptions;
+
+import csci307.theGivingChild.CleanWaterGame.level.PipelinedPhysicsWorld;
+
+public class PipelinedEngine extends GameEngine {
+
+	private PipelinedPhysicsWorld physicsWorld;
+
+	/**
+	 * @param pStepsPerSecond : updates per second, the world steps once per update
+	 */
+	public PipelinedEngine(EngineOptions pEngineOptions, int pStepsPerSecond) {
+		super(pEngineOptions, pStepsPerSecond);
+	}
+
+	/**
+	 * Call it from the update thread
+	 * @param physicsWorld : the level's world, null when the level is disposed
+	 */
+	public void setPhysicsWorld(PipelinedPhysicsWorld physicsWorld) {
+		this.physicsWorld = physicsWorld;
+	}
+
+	public PipelinedPhysicsWorld getPhysicsWorld() {
+		return physicsWorld;
+	}
+
+	/**
+	 * Each update sees the bodies stepped by the one before. Only the last update of a frame has its step
+	 * overlap the drawing, the others are waited for right away by the next update
+	 */
+	@Override
+	protected void onStep(long pNanosecondsElapsed) throws InterruptedException {
+		if (physicsWorld != null) {
+			physicsWorld.awaitStep();
+		}
+		super.onStep(pNanosecondsElapsed);
+		//the update may have disposed the level
+		if (physicsWorld != null) {
+			physicsWorld.startStep();
+		}
+	}
+}
@@ -0,0 +1,327 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: Runs tasks after a delay, for everything in the game that has to happen a bit later: platforms
+*              falling, scenes being swapped. It is one update handler on the engine, a hashed timer wheel, so
+*              each frame only looks at the tasks due in that tick's slot however many are waiting. A task can
+*              have a key, while a task with that key is waiting scheduling another one is ignored, so a
+*              platform that is landed on over and over still falls once.
+*
+* History:
+*    10/18/26 original 1.0
+*/
+package csci307.theGivingChild.CleanWaterGame;
+
+import org.andengine.engine.handler.IUpdateHandler;
+
+public final class Scheduler implements IUpdateHandler {
+
+	/**
+	 * Seconds per tick, delays are rounded up to whole ticks
+	 */
+	public static final float TICK = 1f / 60;
+
+	//a power of two, delays longer than this many ticks go around the wheel more than once
+	private static final int WHEEL_SIZE = 128;
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+	//what slots[] holds for tasks that are not in a slot
+	private static final int DUE = -1;
+	private static final int FREE = -2;
+
+	private static final Scheduler INSTANCE = new Scheduler(64);
+
+	public interface ITask {
+		/**
+		 * @param key : the key it was scheduled with, null if it had none
+		 */
+		public void onRun(Object key);
+	}
+
+	//first task of each slot, -1 if it is empty
+	private final int[] heads = new int[WHEEL_SIZE];
+
+	//the tasks, allocated up front and reused through the free list
+	private Object[] keys;
+	private ITask[] tasks;
+	private int[] rounds;
+	private int[] slots;
+	private int[] next;
+	private int[] previous;
+	private int[] due;
+	private int free;
+	private int pending = 0;
+
+	//the waiting tasks by key, open addressing on the key's identity
+	private Object[] tableKeys;
+	private int[] tableTasks;
+
+	private long tick = 0;
+	private float elapsed = 0;
+
+	private Scheduler(int capacity) {
+		allocate(capacity);
+		clear();
+	}
+
+	public static Scheduler getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Runs a task on the update thread once delay seconds have passed
+	 * @param key : identifies the task, like the platform that falls. null to never ignore it
+	 * @return false if a task with the same key is still waiting, this one is ignored then
+	 */
+	public boolean schedule(Object key, float delay, ITask task) {
+		if (key != null && find(key) >= 0) {
+			return false;
+		}
+		if (free < 0) {
+			allocate(keys.length * 2);
+		}
+		final int i = free;
+		free = next[i];
+
+		final int ticks = Math.max(1, (int) Math.ceil(delay / TICK));
+		keys[i] = key;
+		tasks[i] = task;
+		rounds[i] = (ticks - 1) / WHEEL_SIZE;
+		link(i, (int) ((tick + ticks) & WHEEL_MASK));
+		if (key != null) {
+			put(key, i);
+		}
+		pending++;
+		return true;
+	}
+
+	/**
+	 * @return false if no task with the key is waiting
+	 */
+	public boolean cancel(Object key) {
+		final int i = find(key);
+		if (i < 0) {
+			return false;
+		}
+		remove(key);
+		if (slots[i] == DUE) {
+			//it is due this tick but has not run yet, it is freed once the tick is done
+			keys[i] = null;
+			tasks[i] = null;
+		} else {
+			unlink(i);
+			release(i);
+		}
+		pending--;
+		return true;
+	}
+
+	public boolean isScheduled(Object key) {
+		return find(key) >= 0;
+	}
+
+	public int getPendingCount() {
+		return pending;
+	}
+
+	@Override
+	public void onUpdate(float pSecondsElapsed) {
+		elapsed += pSecondsElapsed;
+		while (elapsed >= TICK) {
+			elapsed -= TICK;
+			tick++;
+			runSlot((int) (tick & WHEEL_MASK));
+		}
+	}
+
+	/**
+	 * Drops every waiting task
+	 */
+	@Override
+	public void reset() {
+		clear();
+	}
+
+	private void runSlot(int slot) {
+		//the due tasks are taken out first, running them can schedule and cancel
+		int dueCount = 0;
+		int i = heads[slot];
+		while (i >= 0) {
+			final int following = next[i];
+			if (rounds[i] == 0) {
+				unlink(i);
+				slots[i] = DUE;
+				due[dueCount++] = i;
+			} else {
+				rounds[i]--;
+			}
+			i = following;
+		}
+
+		for (int d = 0; d < dueCount; d++) {
+			final int task = due[d];
+			final ITask run = tasks[task];
+			//cancelled by one that ran before it
+			if (run == null) {
+				continue;
+			}
+			final Object key = keys[task];
+			if (key != null) {
+				remove(key);
+			}
+			keys[task] = null;
+			tasks[task] = null;
+			pending--;
+			run.onRun(key);
+		}
+		for (int d = 0; d < dueCount; d++) {
+			release(due[d]);
+		}
+	}
+
+	private void link(int i, int slot) {
+		slots[i] = slot;
+		previous[i] = -1;
+		next[i] = heads[slot];
+		if (heads[slot] >= 0) {
+			previous[heads[slot]] = i;
+		}
+		heads[slot] = i;
+	}
+
+	private void unlink(int i) {
+		if (previous[i] >= 0) {
+			next[previous[i]] = next[i];
+		} else {
+			heads[slots[i]] = next[i];
+		}
+		if (next[i] >= 0) {
+			previous[next[i]] = previous[i];
+		}
+	}
+
+	private void release(int i) {
+		keys[i] = null;
+		tasks[i] = null;
+		slots[i] = FREE;
+		next[i] = free;
+		free = i;
+	}
+
+	/**
+	 * Grows the task arrays, the tasks that are waiting keep their places
+	 */
+	private void allocate(int capacity) {
+		final int old = (keys == null) ? 0 : keys.length;
+		final Object[] newKeys = new Object[capacity];
+		final ITask[] newTasks = new ITask[capacity];
+		final int[] newRounds = new int[capacity];
+		final int[] newSlots = new int[capacity];
+		final int[] newNext = new int[capacity];
+		final int[] newPrevious = new int[capacity];
+		if (old > 0) {
+			System.arraycopy(keys, 0, newKeys, 0, old);
+			System.arraycopy(tasks, 0, newTasks, 0, old);
+			System.arraycopy(rounds, 0, newRounds, 0, old);
+			System.arraycopy(slots, 0, newSlots, 0, old);
+			System.arraycopy(next, 0, newNext, 0, old);
+			System.arraycopy(previous, 0, newPrevious, 0, old);
+		}
+		keys = newKeys;
+		tasks = newTasks;
+		rounds = newRounds;
+		slots = newSlots;
+		next = newNext;
+		previous = newPrevious;
+		final int[] newDue = new int[capacity];
+		//a task that runs can make it grow while the tick's due tasks are still being run
+		if (old > 0) {
+			System.arraycopy(due, 0, newDue, 0, old);
+		}
+		due = newDue;
+
+		for (int i = capacity - 1; i >= old; i--) {
+			release(i);
+		}
+
+		//the table is kept at most half full
+		final Object[] oldTableKeys = tableKeys;
+		final int[] oldTableTasks = tableTasks;
+		tableKeys = new Object[capacity * 2];
+		tableTasks = new int[capacity * 2];
+		if (oldTableKeys != null) {
+			for (int t = 0; t < oldTableKeys.length; t++) {
+				if (oldTableKeys[t] != null) {
+					put(oldTableKeys[t], oldTableTasks[t]);
+				}
+			}
+		}
+	}
+
+	private void clear() {
+		for (int slot = 0; slot < WHEEL_SIZE; slot++) {
+			heads[slot] = -1;
+		}
+		free = -1;
+		for (int i = keys.length - 1; i >= 0; i--) {
+			release(i);
+		}
+		for (int t = 0; t < tableKeys.length; t++) {
+			tableKeys[t] = null;
+		}
+		pending = 0;
+		elapsed = 0;
+	}
+
+	private int hash(Object key) {
+		final int h = System.identityHashCode(key);
+		return (h ^ (h >>> 16)) & (tableKeys.length - 1);
+	}
+
+	/**
+	 * @return the task waiting with the key, -1 if there is none
+	 */
+	private int find(Object key) {
+		final int mask = tableKeys.length - 1;
+		for (int t = hash(key); tableKeys[t] != null; t = (t + 1) & mask) {
+			if (tableKeys[t] == key) {
+				return tableTasks[t];
+			}
+		}
+		return -1;
+	}
+
+	private void put(Object key, int task) {
+		final int mask = tableKeys.length - 1;
+		int t = hash(key);
+		while (tableKeys[t] != null) {
+			t = (t + 1) & mask;
+		}
+		tableKeys[t] = key;
+		tableTasks[t] = task;
+	}
+
+	/**
+	 * Takes a key out of the table, the keys after it are moved back so none of them is cut off from its hash
+	 */
+	private void remove(Object key) {
+		final int mask = tableKeys.length - 1;
+		int hole = hash(key);
+		while (tableKeys[hole] != key) {
+			hole = (hole + 1) & mask;
+		}
+		tableKeys[hole] = null;
+		for (int t = (hole + 1) & mask; tableKeys[t] != null; t = (t + 1) & mask) {
+			final int home = hash(tableKeys[t]);
+			//it stays unless the hole is between its home and where it is now
+			final boolean stays = (hole <= t) ? (hole < home && home <= t) : (hole < home || home <= t);
+			if (!stays) {
+				tableKeys[hole] = tableKeys[t];
+				tableTasks[hole] = tableTasks[t];
+				tableKeys[t] = null;
+				hole = t;
+			}
+		}
+	}
+}
@@ -0,0 +1,102 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: Trace of what the game loop did last, for diagnosing collisions and the scene and pause state
+*              machines without printing anything. An event is a category and three ints written into ring
+*              buffers that are allocated once, so recording one costs a few array stores. The last events
+*              can be dumped on demand and are attached to the crash reports.
+*
+* History:
+*    10/18/26 original 1.0
+*/
+package csci307.theGivingChild.CleanWaterGame;
+
+import org.andengine.util.debug.Debug;
+
+public final class Trace {
+
+	public static final int LEVEL_OFF = 0;
+	//state changes: scenes, pausing, menus, the player getting hurt
+	public static final int LEVEL_INFO = 1;
+	//every frame things: contacts and triggers
+	public static final int LEVEL_DEBUG = 2;
+
+	/**
+	 * What is traced. The calls are wrapped in if (Trace.INFO) or if (Trace.DEBUG), those are constants so
+	 * the compiler leaves the calls of the levels that are off out altogether
+	 */
+	public static final int LEVEL = LEVEL_INFO;
+	public static final boolean INFO = LEVEL >= LEVEL_INFO;
+	public static final boolean DEBUG = LEVEL >= LEVEL_DEBUG;
+
+	//categories, the args of each are in the comments
+	public static final int SCENE = 0;		//scene type ordinal
+	public static final int PAUSE = 1;		//paused type ordinal, the one before
+	public static final int MENU = 2;		//menu item id
+	public static final int HIT = 3;		//hp left, player x, player y
+	public static final int CONTACT = 4;	//ContactEventQueue event, player x, player y
+	public static final int TRIGGER = 5;	//entity type id, record index, player x
+	public static final int SHIFT = 6;		//pixels the world was moved back, origin x
+	public static final int QUALITY = 7;	//FrameGovernor tier, average frame time in microseconds
+
+	private static final String[] CATEGORY_NAMES = { "SCENE", "PAUSE", "MENU", "HIT", "CONTACT", "TRIGGER", "SHIFT", "QUALITY" };
+
+	//a power of two, a crash report gets the last this many events
+	private static final int CAPACITY = 256;
+	private static final int MASK = CAPACITY - 1;
+
+	private static final long[] times = new long[CAPACITY];
+	private static final byte[] categories = new byte[CAPACITY];
+	private static final int[] args0 = new int[CAPACITY];
+	private static final int[] args1 = new int[CAPACITY];
+	private static final int[] args2 = new int[CAPACITY];
+	//events recorded so far, the next one goes to count & MASK
+	private static int count = 0;
+
+	private Trace() {
+	}
+
+	/**
+	 * Records an event, from the update thread. Wrap the call in if (Trace.INFO) or if (Trace.DEBUG)
+	 */
+	public static void event(int category, int arg0, int arg1, int arg2) {
+		final int i = count & MASK;
+		times[i] = System.nanoTime();
+		categories[i] = (byte) category;
+		args0[i] = arg0;
+		args1[i] = arg1;
+		args2[i] = arg2;
+		count++;
+	}
+
+	public static void event(int category, int arg0) {
+		event(category, arg0, 0, 0);
+	}
+
+	/**
+	 * @return the events still in the buffer, oldest first, one per line with its time in ms before the last one.
+	 * Builds a string, so only call it when something went wrong or was asked for
+	 */
+	public static String dump() {
+		//the update thread may keep recording, the events it overwrites meanwhile come out garbled but nothing breaks
+		final int end = count;
+		final int start = Math.max(0, end - CAPACITY);
+		final StringBuilder builder = new StringBuilder((end - start) * 32);
+		final long last = times[(end - 1) & MASK];
+		for (int n = start; n < end; n++) {
+			final int i = n & MASK;
+			builder.append((times[i] - last) / 1000000).append("ms ");
+			builder.append(categories[i] < CATEGORY_NAMES.length ? CATEGORY_NAMES[categories[i]] : "?");
+			builder.append(' ').append(args0[i]).append(' ').append(args1[i]).append(' ').append(args2[i]).append('\n');
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Writes the dump to the log
+	 */
+	public static void log() {
+		Debug.d("Trace, last " + Math.min(count, CAPACITY) + " events:\n" + dump());
+	}
+}
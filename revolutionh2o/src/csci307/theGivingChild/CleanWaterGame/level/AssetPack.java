@@ -0,0 +1,312 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: One act's levels, images and sounds in a single .pak file made by AssetPacker.pl. The pack is
+*              opened once and memory mapped, its entries are slices of the mapping found through the index,
+*              so reading one costs no extra file open and no inflating. The entries keep the names they have
+*              under assets/, i.e. level/act2scene1.lvl.
+*
+* History:
+*    10/18/26 original 1.0
+*/
+package csci307.theGivingChild.CleanWaterGame.level;
+
+import java.io.FileDescriptor;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.andengine.opengl.texture.atlas.bitmap.source.IBitmapTextureAtlasSource;
+import org.andengine.opengl.texture.atlas.source.BaseTextureAtlasSource;
+import org.andengine.util.debug.Debug;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.graphics.Bitmap;
+import android.graphics.Bitmap.Config;
+import android.graphics.BitmapFactory;
+
+public class AssetPack {
+
+	public static final String PACK_DIRECTORY = "pack";
+	public static final String PACK_PATH = PACK_DIRECTORY + "/";
+	public static final String PACK_EXTENSION = ".pak";
+
+	private static final int MAGIC = ('H' << 24) | ('2' << 16) | ('O' << 8) | 'P';
+	private static final int VERSION = 1;
+
+	private final String path;
+	private final ByteBuffer buffer;
+	//kept open while the pack is, the sounds are read straight from it. null when the pack could not be mapped
+	private final AssetFileDescriptor descriptor;
+
+	//the index, sorted by name
+	private final String[] names;
+	private final int[] offsets;
+	private final int[] lengths;
+
+	/**
+	 * Opens and maps a pack. It has to be stored uncompressed in the apk to be mapped (aapt -0 pak),
+	 * otherwise it is read into memory once and its sounds can not be played.
+	 * @param path : the pack's asset path i.e. pack/act2.pak
+	 */
+	public static AssetPack open(AssetManager assets, String path) throws IOException {
+		AssetFileDescriptor descriptor = null;
+		try {
+			descriptor = assets.openFd(path);
+		} catch (FileNotFoundException e) {
+			//either missing or compressed, try reading it as a stream
+		}
+
+		if (descriptor == null) {
+			final ByteBuffer buffer = LevelLoader.mapAsset(assets, path);
+			if (buffer == null) {
+				throw new FileNotFoundException(path);
+			}
+			Debug.w(path + " is compressed in the apk, it is read into memory instead of being mapped");
+			return new AssetPack(path, buffer, null);
+		}
+
+		try {
+			//the input stream is not closed, closing it would close the descriptor the sounds need
+			final FileChannel channel = descriptor.createInputStream().getChannel();
+			return new AssetPack(path, channel.map(FileChannel.MapMode.READ_ONLY, descriptor.getStartOffset(), descriptor.getLength()), descriptor);
+		} catch (IOException e) {
+			descriptor.close();
+			throw e;
+		}
+	}
+
+	private AssetPack(String path, ByteBuffer buffer, AssetFileDescriptor descriptor) throws IOException {
+		this.path = path;
+		this.buffer = buffer;
+		this.descriptor = descriptor;
+
+		if (buffer.getInt() != MAGIC) {
+			throw new IOException(path + " is not an asset pack");
+		}
+		final int version = buffer.getShort();
+		if (version != VERSION) {
+			throw new IOException("Unsupported asset pack version " + version + " in " + path);
+		}
+		final int count = buffer.getShort() & 0xFFFF;
+
+		names = new String[count];
+		offsets = new int[count];
+		lengths = new int[count];
+		final byte[] name = new byte[255];
+		for (int i = 0; i < count; i++) {
+			final int length = buffer.get() & 0xFF;
+			buffer.get(name, 0, length);
+			names[i] = new String(name, 0, length, "US-ASCII");
+		}
+		buffer.position((buffer.position() + 3) & ~3);
+		for (int i = 0; i < count; i++) {
+			offsets[i] = buffer.getInt();
+			lengths[i] = buffer.getInt();
+			if (offsets[i] < 0 || lengths[i] < 0 || offsets[i] > buffer.limit() - lengths[i]) {
+				throw new IOException(names[i] + " is outside of " + path);
+			}
+		}
+		buffer.rewind();
+	}
+
+	public String getPath() {
+		return path;
+	}
+
+	/**
+	 * @return true if the pack is memory mapped, false if it had to be read into memory
+	 */
+	public boolean isMapped() {
+		return descriptor != null;
+	}
+
+	public int getEntryCount() {
+		return names.length;
+	}
+
+	/**
+	 * @return the name of an entry, they are sorted
+	 */
+	public String getEntryName(int index) {
+		return names[index];
+	}
+
+	public boolean contains(String name) {
+		return indexOf(name) >= 0;
+	}
+
+	/**
+	 * @return the entry's bytes, a read only view of the pack, null if there is no such entry
+	 */
+	public ByteBuffer getEntry(String name) {
+		final int i = indexOf(name);
+		if (i < 0) {
+			return null;
+		}
+		//the pack's buffer is only ever duplicated, so entries can be read from any thread
+		final ByteBuffer entry = buffer.asReadOnlyBuffer();
+		entry.limit(offsets[i] + lengths[i]);
+		entry.position(offsets[i]);
+		return entry.slice();
+	}
+
+	/**
+	 * @return a stream over the entry, for the readers that need one
+	 */
+	public InputStream openEntry(String name) throws FileNotFoundException {
+		final ByteBuffer entry = getEntry(name);
+		if (entry == null) {
+			throw new FileNotFoundException(name + " is not in " + path);
+		}
+		return new EntryInputStream(entry);
+	}
+
+	/**
+	 * @return the pack file, to read an entry from getFileOffset(name)
+	 * @throws IOException if the pack is not mapped
+	 */
+	public FileDescriptor getFileDescriptor() throws IOException {
+		if (descriptor == null) {
+			throw new IOException(path + " is compressed in the apk");
+		}
+		return descriptor.getFileDescriptor();
+	}
+
+	/**
+	 * @return where the entry starts in the file from getFileDescriptor()
+	 */
+	public long getFileOffset(String name) throws IOException {
+		if (descriptor == null) {
+			throw new IOException(path + " is compressed in the apk");
+		}
+		return descriptor.getStartOffset() + offsets[requireEntry(name)];
+	}
+
+	public int getLength(String name) throws FileNotFoundException {
+		return lengths[requireEntry(name)];
+	}
+
+	/**
+	 * @return an image entry as a texture atlas source, the image is decoded when the atlas is loaded
+	 */
+	public IBitmapTextureAtlasSource getTextureSource(String name) {
+		final ByteBuffer entry = getEntry(name);
+		if (entry == null) {
+			throw new IllegalArgumentException(name + " is not in " + path);
+		}
+		final BitmapFactory.Options options = new BitmapFactory.Options();
+		options.inJustDecodeBounds = true;
+		BitmapFactory.decodeStream(new EntryInputStream(entry.duplicate()), null, options);
+		return new EntryTextureSource(entry, 0, 0, options.outWidth, options.outHeight);
+	}
+
+	/**
+	 * Closes the pack, its entries can not be used afterwards
+	 */
+	public void close() throws IOException {
+		if (descriptor != null) {
+			descriptor.close();
+		}
+	}
+
+	private int indexOf(String name) {
+		int low = 0;
+		int high = names.length - 1;
+		while (low <= high) {
+			final int middle = (low + high) >>> 1;
+			final int compare = names[middle].compareTo(name);
+			if (compare < 0) {
+				low = middle + 1;
+			} else if (compare > 0) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+
+	private int requireEntry(String name) throws FileNotFoundException {
+		final int i = indexOf(name);
+		if (i < 0) {
+			throw new FileNotFoundException(name + " is not in " + path);
+		}
+		return i;
+	}
+
+	/**
+	 * Reads an entry's buffer from its position to its limit
+	 */
+	private static class EntryInputStream extends InputStream {
+		private final ByteBuffer entry;
+
+		private EntryInputStream(ByteBuffer entry) {
+			this.entry = entry;
+		}
+
+		@Override
+		public int read() {
+			return entry.hasRemaining() ? entry.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) {
+			if (length == 0) {
+				return 0;
+			}
+			if (!entry.hasRemaining()) {
+				return -1;
+			}
+			length = Math.min(length, entry.remaining());
+			entry.get(bytes, offset, length);
+			return length;
+		}
+
+		@Override
+		public long skip(long count) {
+			final int skipped = (int) Math.max(0, Math.min(count, entry.remaining()));
+			entry.position(entry.position() + skipped);
+			return skipped;
+		}
+
+		@Override
+		public int available() {
+			return entry.remaining();
+		}
+	}
+
+	/**
+	 * An image entry in a texture atlas, like AssetBitmapTextureAtlasSource does for a loose asset
+	 */
+	private static class EntryTextureSource extends BaseTextureAtlasSource implements IBitmapTextureAtlasSource {
+		private final ByteBuffer entry;
+
+		private EntryTextureSource(ByteBuffer entry, int textureX, int textureY, int textureWidth, int textureHeight) {
+			super(textureX, textureY, textureWidth, textureHeight);
+			this.entry = entry;
+		}
+
+		@Override
+		public EntryTextureSource deepCopy() {
+			return new EntryTextureSource(entry, mTextureX, mTextureY, mTextureWidth, mTextureHeight);
+		}
+
+		@Override
+		public Bitmap onLoadBitmap(Config bitmapConfig) {
+			return onLoadBitmap(bitmapConfig, false);
+		}
+
+		public Bitmap onLoadBitmap(Config bitmapConfig, boolean mutable) {
+			final BitmapFactory.Options options = new BitmapFactory.Options();
+			options.inPreferredConfig = bitmapConfig;
+			final Bitmap bitmap = BitmapFactory.decodeStream(new EntryInputStream(entry.duplicate()), null, options);
+			//inMutable needs API 11
+			return (mutable && bitmap != null) ? bitmap.copy(bitmapConfig, true) : bitmap;
+		}
+	}
+}
@@ -0,0 +1,139 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: Keeps only the bodies around the camera active. The streamers create bodies ahead of the camera
+*              so spawning is done before they are needed, until a body comes within the margin of the camera
+*              it is inactive: Box2D leaves it out of the broad phase and the solver, and its physics connector
+*              is unregistered so it does not run every step. Bodies that fall behind are switched off again
+*              until the streamer despawns them.
+*
+* History:
+*    10/18/26 original 1.0
+*/
+package csci307.theGivingChild.CleanWaterGame.level;
+
+import org.andengine.engine.camera.Camera;
+import org.andengine.engine.handler.IUpdateHandler;
+import org.andengine.extension.physics.box2d.PhysicsConnector;
+import org.andengine.extension.physics.box2d.PhysicsWorld;
+import org.andengine.extension.physics.box2d.util.constants.PhysicsConstants;
+
+import com.badlogic.gdx.physics.box2d.Body;
+
+public class BodyActivator implements IUpdateHandler {
+
+	public static final float DEFAULT_MARGIN = 100;
+
+	private final Camera camera;
+	private final PhysicsWorld physicsWorld;
+	private float margin = DEFAULT_MARGIN;
+
+	private int count = 0;
+	private Body[] bodies = new Body[32];
+	private float[] halfWidths = new float[32];
+	private PhysicsConnector[] connectors = new PhysicsConnector[32];
+
+	/**
+	 * Register it after the streamers, so the bodies they spawned are switched off before the next step
+	 */
+	public BodyActivator(Camera camera, PhysicsWorld physicsWorld) {
+		this.camera = camera;
+		this.physicsWorld = physicsWorld;
+	}
+
+	/**
+	 * How far outside the camera bodies are kept active. The player is in the middle of the screen, so this
+	 * only has to cover what can reach it within a frame, like a falling platform that is already falling
+	 */
+	public void setMargin(float margin) {
+		this.margin = margin;
+	}
+
+	/**
+	 * Starts switching a body on and off, it is switched off right away if it is outside the margin
+	 * @param halfWidth : pixels from the body's position to its left or right edge, whichever is further
+	 * @param connector : the body's physics connector, it has to be registered. null if it has none
+	 */
+	public void track(Body body, float halfWidth, PhysicsConnector connector) {
+		if (count == bodies.length) {
+			final Body[] moreBodies = new Body[count * 2];
+			final float[] moreHalfWidths = new float[count * 2];
+			final PhysicsConnector[] moreConnectors = new PhysicsConnector[count * 2];
+			System.arraycopy(bodies, 0, moreBodies, 0, count);
+			System.arraycopy(halfWidths, 0, moreHalfWidths, 0, count);
+			System.arraycopy(connectors, 0, moreConnectors, 0, count);
+			bodies = moreBodies;
+			halfWidths = moreHalfWidths;
+			connectors = moreConnectors;
+		}
+		bodies[count] = body;
+		halfWidths[count] = halfWidth;
+		connectors[count] = connector;
+		count++;
+		update(count - 1);
+	}
+
+	/**
+	 * Stops switching a body, before it is destroyed. It is left active and its connector registered,
+	 * so whoever tears it down finds it the way they set it up
+	 */
+	public void untrack(Body body) {
+		for (int i = 0; i < count; i++) {
+			if (bodies[i] == body) {
+				setActive(i, true);
+				//the order does not matter, the last one takes its place
+				count--;
+				bodies[i] = bodies[count];
+				halfWidths[i] = halfWidths[count];
+				connectors[i] = connectors[count];
+				bodies[count] = null;
+				connectors[count] = null;
+				return;
+			}
+		}
+	}
+
+	public int getTrackedCount() {
+		return count;
+	}
+
+	@Override
+	public void onUpdate(float pSecondsElapsed) {
+		for (int i = 0; i < count; i++) {
+			update(i);
+		}
+	}
+
+	/**
+	 * Forgets the bodies, the scene destroys them all when it is disposed
+	 */
+	@Override
+	public void reset() {
+		for (int i = 0; i < count; i++) {
+			bodies[i] = null;
+			connectors[i] = null;
+		}
+		count = 0;
+	}
+
+	private void update(int i) {
+		//the bodies and the camera are both in scene coordinates
+		final float x = bodies[i].getPosition().x * PhysicsConstants.PIXEL_TO_METER_RATIO_DEFAULT;
+		setActive(i, x + halfWidths[i] >= camera.getXMin() - margin && x - halfWidths[i] <= camera.getXMax() + margin);
+	}
+
+	private void setActive(int i, boolean active) {
+		if (bodies[i].isActive() == active) {
+			return;
+		}
+		bodies[i].setActive(active);
+		if (connectors[i] != null) {
+			if (active) {
+				physicsWorld.registerPhysicsConnector(connectors[i]);
+			} else {
+				physicsWorld.unregisterPhysicsConnector(connectors[i]);
+			}
+		}
+	}
+}
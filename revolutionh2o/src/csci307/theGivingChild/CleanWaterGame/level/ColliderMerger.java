@@ -0,0 +1,187 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: Joins static level tiles that sit edge to edge at the same height into single boxes,
+*              and boxes that touch into groups that share one body. The tiles keep their own sprites.
+*
+* History:
+*    10/18/26 original 1.0
+*/
+package csci307.theGivingChild.CleanWaterGame.level;
+
+public class ColliderMerger {
+
+	private ColliderMerger() {
+	}
+
+	/**
+	 * Merges the tiles of a level into colliders. Tiles are merged into a box when they have the same collider type,
+	 * the same top and bottom and touch or overlap horizontally. Boxes of the same collider type that touch are
+	 * grouped, even when they are at different heights, as long as the group stays within maxGroupWidth.
+	 * @param level : the level, sorted by x
+	 * @param tileTypes : type names of the tiles that may be merged
+	 * @param tileWidths : width of each tile type's body
+	 * @param tileHeights : height of each tile type's body
+	 * @param colliderTypes : the body user data for each tile type, also used as the type names of the result
+	 * @param maxGroupWidth : widest a group may get, keeps the bodies small enough to stream
+	 * @return the groups and boxes, typed with the distinct collider types
+	 */
+	public static MergedColliders merge(LevelData level, String[] tileTypes, int[] tileWidths, int[] tileHeights, String[] colliderTypes, int maxGroupWidth) {
+		//resolve the level's type table once instead of comparing names for every record
+		final String[] colliderNames = distinct(colliderTypes);
+		final int[] tileOf = new int[level.getTypeCount()];
+		final short[] colliderOf = new short[tileTypes.length];
+		for (int t = 0; t < level.getTypeCount(); t++) {
+			tileOf[t] = indexOf(tileTypes, level.getTypeName(t));
+		}
+		for (int t = 0; t < tileTypes.length; t++) {
+			colliderOf[t] = (short) indexOf(colliderNames, colliderTypes[t]);
+		}
+
+		final int capacity = level.getEntityCount();
+		final int[] left = new int[capacity];
+		final int[] right = new int[capacity];
+		final int[] bottom = new int[capacity];
+		final int[] top = new int[capacity];
+		final short[] types = new short[capacity];
+		int count = 0;
+
+		for (int i = 0; i < level.getEntityCount(); i++) {
+			final int tile = tileOf[level.getType(i)];
+			if (tile < 0) {
+				continue;
+			}
+			final int tileLeft = level.getX(i) - tileWidths[tile] / 2;
+			final int tileRight = tileLeft + tileWidths[tile];
+			final int tileBottom = level.getY(i) - tileHeights[tile] / 2;
+			final int tileTop = tileBottom + tileHeights[tile];
+			final short type = colliderOf[tile];
+
+			int run = count - 1;
+			while (run >= 0 && !(types[run] == type && bottom[run] == tileBottom && top[run] == tileTop && left[run] <= tileLeft && tileLeft <= right[run])) {
+				run--;
+			}
+			if (run >= 0) {
+				right[run] = Math.max(right[run], tileRight);
+			} else {
+				left[count] = tileLeft;
+				right[count] = tileRight;
+				bottom[count] = tileBottom;
+				top[count] = tileTop;
+				types[count] = type;
+				count++;
+			}
+		}
+
+		//runs start in x order of their first tile, tiles of different widths can leave a few out of order
+		for (int i = 1; i < count; i++) {
+			for (int j = i; j > 0 && left[j - 1] > left[j]; j--) {
+				swap(left, j); swap(right, j); swap(bottom, j); swap(top, j);
+				final short type = types[j];
+				types[j] = types[j - 1];
+				types[j - 1] = type;
+			}
+		}
+
+		//boxes are sorted by left, so a group starts at its leftmost box and groups come out sorted too
+		final int[] groupOf = new int[count];
+		final int[] groupLeft = new int[count];
+		final int[] groupRight = new int[count];
+		final int[] groupBottom = new int[count];
+		final int[] groupTop = new int[count];
+		final short[] groupTypes = new short[count];
+		final int[] firstBox = new int[count + 1];
+		int groupCount = 0;
+		for (int i = 0; i < count; i++) {
+			int group = groupCount - 1;
+			while (group >= 0 && !(groupTypes[group] == types[i] && left[i] <= groupRight[group] && right[i] - groupLeft[group] <= maxGroupWidth)) {
+				group--;
+			}
+			if (group >= 0) {
+				groupRight[group] = Math.max(groupRight[group], right[i]);
+				groupBottom[group] = Math.min(groupBottom[group], bottom[i]);
+				groupTop[group] = Math.max(groupTop[group], top[i]);
+			} else {
+				group = groupCount++;
+				groupLeft[group] = left[i];
+				groupRight[group] = right[i];
+				groupBottom[group] = bottom[i];
+				groupTop[group] = top[i];
+				groupTypes[group] = types[i];
+			}
+			groupOf[i] = group;
+			firstBox[group + 1]++;
+		}
+		for (int group = 0; group < groupCount; group++) {
+			firstBox[group + 1] += firstBox[group];
+		}
+
+		final int[] next = new int[groupCount];
+		System.arraycopy(firstBox, 0, next, 0, groupCount);
+		final int[] x = new int[count];
+		final int[] y = new int[count];
+		final int[] widths = new int[count];
+		final int[] heights = new int[count];
+		final short[] boxTypes = new short[count];
+		for (int i = 0; i < count; i++) {
+			final int box = next[groupOf[i]]++;
+			widths[box] = right[i] - left[i];
+			heights[box] = top[i] - bottom[i];
+			x[box] = left[i] + widths[box] / 2;
+			y[box] = bottom[i] + heights[box] / 2;
+			boxTypes[box] = types[i];
+		}
+		final LevelData boxes = new LevelData(level.getWidth(), level.getHeight(), colliderNames, count, x, y, widths, heights, boxTypes);
+
+		final int[] groupX = new int[groupCount];
+		final int[] groupY = new int[groupCount];
+		final int[] groupWidths = new int[groupCount];
+		final int[] groupHeights = new int[groupCount];
+		final short[] groupTypeIds = new short[groupCount];
+		final int[] groupFirstBox = new int[groupCount + 1];
+		for (int group = 0; group < groupCount; group++) {
+			groupWidths[group] = groupRight[group] - groupLeft[group];
+			groupHeights[group] = groupTop[group] - groupBottom[group];
+			groupX[group] = groupLeft[group] + groupWidths[group] / 2;
+			groupY[group] = groupBottom[group] + groupHeights[group] / 2;
+			groupTypeIds[group] = groupTypes[group];
+		}
+		System.arraycopy(firstBox, 0, groupFirstBox, 0, groupCount + 1);
+		final LevelData groups = new LevelData(level.getWidth(), level.getHeight(), colliderNames, groupCount, groupX, groupY, groupWidths, groupHeights, groupTypeIds);
+
+		return new MergedColliders(groups, boxes, groupFirstBox);
+	}
+
+	private static void swap(int[] values, int j) {
+		final int value = values[j];
+		values[j] = values[j - 1];
+		values[j - 1] = value;
+	}
+
+	private static int indexOf(String[] names, String name) {
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static String[] distinct(String[] names) {
+		final String[] unique = new String[names.length];
+		int count = 0;
+		for (String name : names) {
+			if (indexOf(copy(unique, count), name) < 0) {
+				unique[count++] = name;
+			}
+		}
+		return copy(unique, count);
+	}
+
+	private static String[] copy(String[] names, int count) {
+		final String[] copy = new String[count];
+		System.arraycopy(names, 0, copy, 0, count);
+		return copy;
+	}
+}
@@ -0,0 +1,187 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: Turns the contacts Box2D finds between the player's body and everything else into gameplay
+*              events: landed on top, ran into the side, touched a hazard, and let go again. The contact
+*              listener only records them, the world can not be changed during a step; they are handed
+*              to the subscribers right after the step, from a queue that is allocated once.
+*
+* History:
+*    10/18/26 original 1.0
+*/
+package csci307.theGivingChild.CleanWaterGame.level;
+
+import java.util.ArrayList;
+
+import org.andengine.engine.handler.IUpdateHandler;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.Contact;
+import com.badlogic.gdx.physics.box2d.ContactImpulse;
+import com.badlogic.gdx.physics.box2d.ContactListener;
+import com.badlogic.gdx.physics.box2d.Fixture;
+import com.badlogic.gdx.physics.box2d.Manifold;
+
+public class ContactEventQueue implements ContactListener, IUpdateHandler {
+
+	/**
+	 * The subject came down on top of the other fixture
+	 */
+	public static final int LANDED = 0;
+	/**
+	 * The subject ran into the left side of the other fixture
+	 */
+	public static final int SIDE_HIT = 1;
+	/**
+	 * The subject touched a fixture of a hazard body, from any side
+	 */
+	public static final int HAZARD = 2;
+	/**
+	 * The subject stopped touching the other fixture
+	 */
+	public static final int SEPARATED = 3;
+
+	//how far up (or left) the contact normal has to point to count as landing (or a side hit), about 45 degrees
+	private static final float NORMAL_THRESHOLD = 0.7f;
+
+	public interface IContactSubscriber {
+		/**
+		 * @param event : LANDED, SIDE_HIT, HAZARD or SEPARATED
+		 * @param other : the fixture the subject touched, its user data is the entity it belongs to if it has one
+		 */
+		public void onContactEvent(int event, Fixture other);
+	}
+
+	private final ArrayList<IContactSubscriber> subscribers = new ArrayList<IContactSubscriber>();
+	private final ArrayList<Object> hazards = new ArrayList<Object>();
+	private Body subject;
+
+	private int eventCount = 0;
+	private int[] events;
+	private Fixture[] others;
+
+	/**
+	 * @param capacity : events that fit in the queue before it has to grow, a step rarely has more than a few
+	 */
+	public ContactEventQueue(int capacity) {
+		events = new int[capacity];
+		others = new Fixture[capacity];
+	}
+
+	/**
+	 * @param subject : the body the events are about, the player's. Contacts between other bodies are ignored
+	 */
+	public void setSubject(Body subject) {
+		this.subject = subject;
+	}
+
+	/**
+	 * Bodies with this user data are hazards, touching them is a HAZARD instead of landing or a side hit
+	 */
+	public void addHazard(Object bodyUserData) {
+		hazards.add(bodyUserData);
+	}
+
+	/**
+	 * Subscribers get every event, in the order they subscribed
+	 */
+	public void subscribe(IContactSubscriber subscriber) {
+		subscribers.add(subscriber);
+	}
+
+	@Override
+	public void beginContact(Contact contact) {
+		final Fixture other = getOther(contact);
+		if (other == null) {
+			return;
+		}
+		if (hazards.contains(other.getBody().getUserData())) {
+			add(HAZARD, other);
+			return;
+		}
+
+		//the normal points from fixture A to fixture B, turned here to point from the other fixture to the subject
+		final Vector2 normal = contact.getWorldManifold().getNormal();
+		final float direction = (other == contact.getFixtureA()) ? 1 : -1;
+		if (normal.y * direction > NORMAL_THRESHOLD) {
+			add(LANDED, other);
+		} else if (normal.x * direction < -NORMAL_THRESHOLD) {
+			add(SIDE_HIT, other);
+		}
+	}
+
+	@Override
+	public void endContact(Contact contact) {
+		final Fixture other = getOther(contact);
+		//bodies being destroyed end their contacts too, outside of a step, their fixtures are gone by the next update
+		if (other != null && other.getBody().getWorld().isLocked()) {
+			add(SEPARATED, other);
+		}
+	}
+
+	@Override
+	public void preSolve(Contact contact, Manifold oldManifold) {
+	}
+
+	@Override
+	public void postSolve(Contact contact, ContactImpulse impulse) {
+	}
+
+	/**
+	 * Hands out the events of the last step, register it right after the physics world. The subscribers can
+	 * change bodies but should leave destroying them to the streamers, later events may be about them.
+	 */
+	@Override
+	public void onUpdate(float pSecondsElapsed) {
+		for (int i = 0; i < eventCount; i++) {
+			for (int s = 0; s < subscribers.size(); s++) {
+				subscribers.get(s).onContactEvent(events[i], others[i]);
+			}
+			others[i] = null;
+		}
+		eventCount = 0;
+	}
+
+	/**
+	 * Drops the events that were not handed out yet, their fixtures may be gone
+	 */
+	@Override
+	public void reset() {
+		for (int i = 0; i < eventCount; i++) {
+			others[i] = null;
+		}
+		eventCount = 0;
+	}
+
+	/**
+	 * @return the fixture the subject touched, null if the contact is not about the subject
+	 */
+	private Fixture getOther(Contact contact) {
+		if (subject == null) {
+			return null;
+		}
+		if (contact.getFixtureA().getBody() == subject) {
+			return contact.getFixtureB();
+		}
+		if (contact.getFixtureB().getBody() == subject) {
+			return contact.getFixtureA();
+		}
+		return null;
+	}
+
+	private void add(int event, Fixture other) {
+		if (eventCount == events.length) {
+			final int[] moreEvents = new int[eventCount * 2];
+			final Fixture[] moreOthers = new Fixture[eventCount * 2];
+			System.arraycopy(events, 0, moreEvents, 0, eventCount);
+			System.arraycopy(others, 0, moreOthers, 0, eventCount);
+			events = moreEvents;
+			others = moreOthers;
+		}
+		events[eventCount] = event;
+		others[eventCount] = other;
+		eventCount++;
+	}
+}
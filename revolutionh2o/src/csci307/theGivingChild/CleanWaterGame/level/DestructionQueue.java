@@ -0,0 +1,142 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: Takes bodies and entities out of the game in one place. Anything can ask for a removal at any
+*              time, even from a contact listener while Box2D is stepping; the removals are queued and done
+*              together between steps: the physics connector is unregistered, the body destroyed and the
+*              entity detached.
+*
+* History:
+*    10/18/26 original 1.0
+*    10/18/26 a teardown is done all at once, before the world is reset
+*/
+package csci307.theGivingChild.CleanWaterGame.level;
+
+import org.andengine.engine.handler.IUpdateHandler;
+import org.andengine.entity.IEntity;
+import org.andengine.extension.physics.box2d.PhysicsConnector;
+import org.andengine.extension.physics.box2d.PhysicsWorld;
+
+import com.badlogic.gdx.physics.box2d.Body;
+
+public class DestructionQueue implements IUpdateHandler {
+
+	/**
+	 * Gets the entities once they are detached, to give them back to their pools
+	 */
+	public interface IDestroyListener {
+		public void onDestroyed(IEntity entity);
+	}
+
+	private final PhysicsWorld physicsWorld;
+	private final IDestroyListener listener;
+
+	//a ring of the queued removals
+	private int first = 0;
+	private int count = 0;
+	private IEntity[] entities = new IEntity[64];
+	private Body[] bodies = new Body[64];
+	private PhysicsConnector[] connectors = new PhysicsConnector[64];
+
+	/**
+	 * Register it after everything that can ask for removals, so they are done before the frame is drawn and
+	 * before the next step
+	 * @param listener : told about each entity that was detached, null for nobody
+	 */
+	public DestructionQueue(PhysicsWorld physicsWorld, IDestroyListener listener) {
+		this.physicsWorld = physicsWorld;
+		this.listener = listener;
+	}
+
+	/**
+	 * Queues a removal, each of them can be null
+	 * @param entity : detached, then handed to the listener
+	 * @param body : destroyed, it must not be queued twice
+	 * @param connector : unregistered from the physics world
+	 */
+	public void destroy(IEntity entity, Body body, PhysicsConnector connector) {
+		if (count == entities.length) {
+			grow();
+		}
+		final int i = (first + count) % entities.length;
+		entities[i] = entity;
+		bodies[i] = body;
+		connectors[i] = connector;
+		count++;
+	}
+
+	public void destroy(Body body) {
+		destroy(null, body, null);
+	}
+
+	public boolean isEmpty() {
+		return count == 0;
+	}
+
+	public int getQueuedCount() {
+		return count;
+	}
+
+	/**
+	 * Does everything that is queued right away
+	 */
+	public void flush() {
+		drain(count);
+	}
+
+	@Override
+	public void onUpdate(float pSecondsElapsed) {
+		drain(count);
+	}
+
+	/**
+	 * Nothing, the scene is reset for disposal after the queue is flushed
+	 */
+	@Override
+	public void reset() {
+	}
+
+	private void drain(int removals) {
+		for (int n = 0; n < removals; n++) {
+			final IEntity entity = entities[first];
+			final Body body = bodies[first];
+			final PhysicsConnector connector = connectors[first];
+			entities[first] = null;
+			bodies[first] = null;
+			connectors[first] = null;
+			first = (first + 1) % entities.length;
+			count--;
+
+			if (connector != null) {
+				physicsWorld.unregisterPhysicsConnector(connector);
+			}
+			if (body != null) {
+				physicsWorld.destroyBody(body);
+			}
+			if (entity != null) {
+				entity.detachSelf();
+				if (listener != null) {
+					listener.onDestroyed(entity);
+				}
+			}
+		}
+	}
+
+	private void grow() {
+		final int capacity = entities.length * 2;
+		final IEntity[] moreEntities = new IEntity[capacity];
+		final Body[] moreBodies = new Body[capacity];
+		final PhysicsConnector[] moreConnectors = new PhysicsConnector[capacity];
+		for (int n = 0; n < count; n++) {
+			final int i = (first + n) % entities.length;
+			moreEntities[n] = entities[i];
+			moreBodies[n] = bodies[i];
+			moreConnectors[n] = connectors[i];
+		}
+		entities = moreEntities;
+		bodies = moreBodies;
+		connectors = moreConnectors;
+		first = 0;
+	}
+}
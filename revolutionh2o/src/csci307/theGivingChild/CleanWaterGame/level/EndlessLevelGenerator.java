@@ -0,0 +1,272 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: Generates an endless level from a seed, a segment at a time just ahead of the camera.
+*              The segments use the same entity types as the level files and get harder the further
+*              the player runs. Everything is kept in fixed rings so a run can last forever.
+*
+* History:
+*    10/18/26 original 1.0
+*    10/18/26 the level has no width instead of the largest int
+*    10/18/26 takes the FloatingOrigin in its constructor
+*/
+package csci307.theGivingChild.CleanWaterGame.level;
+
+import java.util.Random;
+
+import org.andengine.engine.camera.Camera;
+import org.andengine.engine.handler.IUpdateHandler;
+
+public class EndlessLevelGenerator implements IUpdateHandler {
+
+	/**
+	 * Level ids of endless runs start with this, followed by the seed i.e. endless:1234
+	 */
+	public static final String LEVEL_PREFIX = "endless:";
+
+	public static final int LEVEL_HEIGHT = 480;
+
+	//how far past the right edge of the camera segments are generated, more than the streamers look ahead
+	private static final int GENERATION_LOOKAHEAD = 400;
+	//distance over which the difficulty goes from 0 to 1
+	private static final int DIFFICULTY_DISTANCE = 20000;
+
+	//a few screens worth of records, the streamers only ever read what is near the camera
+	private static final int ENTITY_CAPACITY = 1024;
+	private static final int COLLIDER_CAPACITY = 256;
+	private static final int MAX_SEGMENT_ENTITIES = 64;
+
+	private static final String[] ENTITY_TYPES = { "player", "ground", "hill", "fallingPlatform", "fallingPlatform2", "alligator", "collectable" };
+	private static final short PLAYER = 0;
+	private static final short GROUND = 1;
+	private static final short HILL = 2;
+	private static final short FALLING_PLATFORM = 3;
+	private static final short FALLING_PLATFORM_2 = 4;
+	private static final short ALLIGATOR = 5;
+	private static final short COLLECTABLE = 6;
+
+	private static final String[] COLLIDER_TYPES = { "ground" };
+	private static final short COLLIDER_GROUND = 0;
+
+	//tile sizes, the same as the textures the bodies are made from
+	private static final int TILE_WIDTH = 100;
+	private static final int GROUND_HEIGHT = 50;
+	private static final int HILL_HEIGHT = 200;
+	private static final int HILL_Y = 25;
+	private static final int SMALL_PLATFORM_WIDTH = 50;
+	private static final int PLATFORM_HEIGHT = 30;
+
+	//heights of the collectables in an arc
+	private static final int[] ARC = { 0, 20, 30, 20, 0 };
+
+	private final Camera camera;
+	private final FloatingOrigin origin;
+	private final Random random;
+	private final GeneratedLevelData level;
+	private final GeneratedLevelData colliderBoxes;
+	private final MergedColliders colliders;
+
+	//left edge of the next segment
+	private int cursor = 0;
+
+	//records of the segment being generated, sorted by x before they are added to the level
+	private int segmentCount = 0;
+	private final int[] segmentX = new int[MAX_SEGMENT_ENTITIES];
+	private final int[] segmentY = new int[MAX_SEGMENT_ENTITIES];
+	private final int[] segmentWidths = new int[MAX_SEGMENT_ENTITIES];
+	private final int[] segmentHeights = new int[MAX_SEGMENT_ENTITIES];
+	private final short[] segmentTypes = new short[MAX_SEGMENT_ENTITIES];
+
+	/**
+	 * @param origin : turns the camera's right edge into level x
+	 */
+	public EndlessLevelGenerator(Camera camera, FloatingOrigin origin, long seed) {
+		this.camera = camera;
+		this.origin = origin;
+		this.random = new Random(seed);
+		level = new GeneratedLevelData(LevelData.UNBOUNDED_WIDTH, LEVEL_HEIGHT, ENTITY_TYPES, ENTITY_CAPACITY);
+		colliderBoxes = new GeneratedLevelData(LevelData.UNBOUNDED_WIDTH, LEVEL_HEIGHT, COLLIDER_TYPES, COLLIDER_CAPACITY);
+		colliders = new MergedColliders(colliderBoxes);
+
+		//a safe runway to start on
+		addEntity(100, 100, 70, 100, PLAYER);
+		groundRun(8, false);
+		flushSegment();
+	}
+
+	public static boolean isEndless(String levelID) {
+		return levelID != null && levelID.startsWith(LEVEL_PREFIX);
+	}
+
+	public static String getLevelID(long seed) {
+		return LEVEL_PREFIX + seed;
+	}
+
+	public static long getSeed(String levelID) {
+		return Long.parseLong(levelID.substring(LEVEL_PREFIX.length()));
+	}
+
+	/**
+	 * The entities, stream them with a LevelStreamer
+	 */
+	public LevelData getLevel() {
+		return level;
+	}
+
+	/**
+	 * The ground bodies, every box is its own group
+	 */
+	public MergedColliders getColliders() {
+		return colliders;
+	}
+
+	/**
+	 * Generates segments until the level reaches past the camera, register it before the streamers
+	 */
+	@Override
+	public void onUpdate(float pSecondsElapsed) {
+		final float edge = origin.toLevelX(camera.getXMax()) + GENERATION_LOOKAHEAD;
+		while (cursor <= edge) {
+			generateSegment();
+			flushSegment();
+		}
+	}
+
+	@Override
+	public void reset() {
+	}
+
+	/**
+	 * @return 0 at the start of the run, up to 1 after DIFFICULTY_DISTANCE
+	 */
+	private float getDifficulty() {
+		return Math.min(1f, (float) cursor / DIFFICULTY_DISTANCE);
+	}
+
+	/**
+	 * Picks an obstacle, followed by some ground to land on. Obstacles get more likely, gaps wider
+	 * and the ground between them shorter as the difficulty goes up.
+	 */
+	private void generateSegment() {
+		final float difficulty = getDifficulty();
+		final float obstacle = random.nextFloat();
+
+		if (obstacle < 0.5f - 0.3f * difficulty) {
+			//nothing, just a longer run
+			groundRun(3 + random.nextInt(4), random.nextFloat() < 0.5f);
+		} else if (obstacle < 0.7f - 0.2f * difficulty) {
+			hillRun(2 + random.nextInt(3), random.nextFloat() < 0.5f);
+		} else if (obstacle < 0.85f - 0.1f * difficulty) {
+			fallingPlatformGap(difficulty);
+		} else {
+			alligatorPit(difficulty);
+		}
+
+		//somewhere to land
+		groundRun(Math.max(2, 5 - (int) (3 * difficulty) + random.nextInt(2)), false);
+	}
+
+	private void groundRun(int tiles, boolean withArc) {
+		for (int i = 0; i < tiles; i++) {
+			addEntity(cursor + TILE_WIDTH * i + TILE_WIDTH / 2, GROUND_HEIGHT / 2, TILE_WIDTH, GROUND_HEIGHT, GROUND);
+		}
+		if (withArc) {
+			collectableArc(cursor + TILE_WIDTH, GROUND_HEIGHT + 55);
+		}
+		addCollider(cursor, 0, TILE_WIDTH * tiles, GROUND_HEIGHT);
+		cursor += TILE_WIDTH * tiles;
+	}
+
+	private void hillRun(int tiles, boolean withArc) {
+		for (int i = 0; i < tiles; i++) {
+			addEntity(cursor + TILE_WIDTH * i + TILE_WIDTH / 2, HILL_Y, TILE_WIDTH, HILL_HEIGHT, HILL);
+		}
+		if (withArc) {
+			collectableArc(cursor, HILL_Y + HILL_HEIGHT / 2 + 55);
+		}
+		addCollider(cursor, HILL_Y - HILL_HEIGHT / 2, TILE_WIDTH * tiles, HILL_HEIGHT);
+		cursor += TILE_WIDTH * tiles;
+	}
+
+	/**
+	 * A gap crossed on falling platforms, either a low row of small ones or a few large ones to jump between
+	 */
+	private void fallingPlatformGap(float difficulty) {
+		if (random.nextFloat() < 0.5f) {
+			final int platforms = 6 + (int) (6 * difficulty) + random.nextInt(4);
+			for (int i = 0; i < platforms; i++) {
+				addEntity(cursor + SMALL_PLATFORM_WIDTH * i + SMALL_PLATFORM_WIDTH / 2, 35, SMALL_PLATFORM_WIDTH, PLATFORM_HEIGHT, FALLING_PLATFORM_2);
+			}
+			cursor += SMALL_PLATFORM_WIDTH * platforms;
+		} else {
+			final int platforms = 2 + random.nextInt(2);
+			final int spacing = 150 + (int) (60 * difficulty);
+			//the first one can be reached from the ground, each next one is at most a step higher
+			int y = 105;
+			for (int i = 0; i < platforms; i++) {
+				addEntity(cursor + spacing * i + spacing / 2, y, TILE_WIDTH, PLATFORM_HEIGHT, FALLING_PLATFORM);
+				y = Math.min(185, y + 40 * random.nextInt(2));
+			}
+			cursor += spacing * platforms;
+		}
+	}
+
+	/**
+	 * A gap with an alligator waiting at the bottom
+	 */
+	private void alligatorPit(float difficulty) {
+		final int width = 120 + (int) (60 * difficulty);
+		addEntity(cursor + width / 2, 28, 84, 56, ALLIGATOR);
+		if (random.nextFloat() < 0.5f) {
+			collectableArc(cursor, GROUND_HEIGHT + 80);
+		}
+		cursor += width;
+	}
+
+	/**
+	 * Five water drops in an arc starting at x
+	 */
+	private void collectableArc(int x, int y) {
+		for (int i = 0; i < ARC.length; i++) {
+			addEntity(x + 60 * i, y + ARC[i], 50, 50, COLLECTABLE);
+		}
+	}
+
+	private void addEntity(int x, int y, int width, int height, short type) {
+		segmentX[segmentCount] = x;
+		segmentY[segmentCount] = y;
+		segmentWidths[segmentCount] = width;
+		segmentHeights[segmentCount] = height;
+		segmentTypes[segmentCount] = type;
+		segmentCount++;
+	}
+
+	private void addCollider(int left, int bottom, int width, int height) {
+		colliderBoxes.add(left + width / 2, bottom + height / 2, width, height, COLLIDER_GROUND);
+	}
+
+	/**
+	 * Adds the segment's entities to the level in x order, like the level files are
+	 */
+	private void flushSegment() {
+		for (int i = 1; i < segmentCount; i++) {
+			for (int j = i; j > 0 && segmentX[j - 1] > segmentX[j]; j--) {
+				swap(segmentX, j); swap(segmentY, j); swap(segmentWidths, j); swap(segmentHeights, j);
+				final short type = segmentTypes[j];
+				segmentTypes[j] = segmentTypes[j - 1];
+				segmentTypes[j - 1] = type;
+			}
+		}
+		for (int i = 0; i < segmentCount; i++) {
+			level.add(segmentX[i], segmentY[i], segmentWidths[i], segmentHeights[i], segmentTypes[i]);
+		}
+		segmentCount = 0;
+	}
+
+	private static void swap(int[] values, int j) {
+		final int value = values[j];
+		values[j] = values[j - 1];
+		values[j - 1] = value;
+	}
+}
@@ -0,0 +1,225 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: Registry of the entity types a level can contain. Each type is a pool of entities that
+*              are seated at a level record when obtained and kept for the next level when recycled. Triggers
+*              are registered apart, they have no entity and no pool, only something to do when reached.
+*
+* History:
+*    10/18/26 original 1.0
+*    10/18/26 triggers are registered apart from the pools
+*/
+package csci307.theGivingChild.CleanWaterGame.level;
+
+import java.util.ArrayList;
+
+import org.andengine.entity.IEntity;
+import org.andengine.util.adt.pool.GenericPool;
+
+public class EntityFactory {
+
+	public static final short UNKNOWN_TYPE = -1;
+
+	/**
+	 * A pool of entities of one type. Entities are allocated once and seated again every time they are obtained,
+	 * so they should keep everything that does not depend on the level record.
+	 */
+	public static abstract class EntityType<T extends IEntity> extends GenericPool<T> {
+
+		private final byte flags;
+
+		protected EntityType() {
+			this((byte) 0);
+		}
+
+		/**
+		 * @param flags : the LevelData FLAG_ bits of the type's records
+		 */
+		protected EntityType(byte flags) {
+			this.flags = flags;
+		}
+
+		public byte getFlags() {
+			return flags;
+		}
+
+		/**
+		 * Puts an entity at its level record and resets whatever it changed during its last use
+		 * @param entity : a new or recycled entity, not attached to anything
+		 */
+		protected abstract void onSeat(T entity, int x, int y, int width, int height);
+
+		/**
+		 * Called once by the TriggerIndex when the player reaches one of the type's sensors, the entity is
+		 * despawned right after. Nothing by default.
+		 * @param entity : the record's entity
+		 */
+		protected void onTrigger(T entity) {
+		}
+
+		/**
+		 * Called with the ContactEventQueue's events between the player's body and the entity's. The entity's
+		 * fixtures need the entity as their user data. Nothing by default.
+		 * @param event : ContactEventQueue.LANDED, SIDE_HIT, HAZARD or SEPARATED
+		 */
+		protected void onPlayerContact(T entity, int event) {
+		}
+
+		private T obtain(short typeId, int x, int y, int width, int height) {
+			final T entity = obtainPoolItem();
+			entity.setTag(typeId);
+			onSeat(entity, x, y, width, height);
+			return entity;
+		}
+
+		@SuppressWarnings("unchecked")
+		private void recycle(IEntity entity) {
+			recyclePoolItem((T) entity);
+		}
+
+		@SuppressWarnings("unchecked")
+		private void trigger(IEntity entity) {
+			onTrigger((T) entity);
+		}
+
+		@SuppressWarnings("unchecked")
+		private void playerContact(IEntity entity, int event) {
+			onPlayerContact((T) entity, event);
+		}
+	}
+
+	/**
+	 * A box in the level that does something when the player reaches it. It is only a record in the
+	 * TriggerIndex, nothing is spawned for it
+	 */
+	public static abstract class TriggerType {
+
+		/**
+		 * The LevelData FLAG_ bits of a trigger's records
+		 */
+		public static final byte FLAGS = LevelData.FLAG_SENSOR | LevelData.FLAG_NO_ENTITY;
+
+		/**
+		 * Called once by the TriggerIndex when the player reaches one of the type's records
+		 */
+		protected abstract void onTrigger();
+	}
+
+	//by type id, each id has either an entity type or a trigger
+	private final ArrayList<String> typeNames = new ArrayList<String>();
+	private final ArrayList<EntityType<?>> types = new ArrayList<EntityType<?>>();
+	private final ArrayList<TriggerType> triggers = new ArrayList<TriggerType>();
+
+	/**
+	 * Registers a type, a type or trigger registered again under the same name replaces the old one
+	 * @param typeName : the type attribute used in the level files
+	 * @return the id of the type
+	 */
+	public short register(String typeName, EntityType<?> type) {
+		return register(typeName, type, null);
+	}
+
+	/**
+	 * Registers a trigger, see register(String, EntityType)
+	 * @return the id of the trigger's type
+	 */
+	public short register(String typeName, TriggerType trigger) {
+		return register(typeName, null, trigger);
+	}
+
+	private short register(String typeName, EntityType<?> type, TriggerType trigger) {
+		final short typeId = getTypeId(typeName);
+		if (typeId != UNKNOWN_TYPE) {
+			types.set(typeId, type);
+			triggers.set(typeId, trigger);
+			return typeId;
+		}
+		typeNames.add(typeName.intern());
+		types.add(type);
+		triggers.add(trigger);
+		return (short) (types.size() - 1);
+	}
+
+	/**
+	 * @return the id of a registered type, or UNKNOWN_TYPE
+	 */
+	public short getTypeId(String typeName) {
+		final String name = typeName.intern();
+		for (int i = 0; i < typeNames.size(); i++) {
+			if (typeNames.get(i) == name) {
+				return (short) i;
+			}
+		}
+		return UNKNOWN_TYPE;
+	}
+
+	/**
+	 * Looks up the type table of a level once so spawning does not compare names
+	 * @return the registered type id for each of the level's type ids, UNKNOWN_TYPE where nothing is registered
+	 */
+	public short[] resolve(LevelData level) {
+		final short[] typeIds = new short[level.getTypeCount()];
+		for (int i = 0; i < typeIds.length; i++) {
+			typeIds[i] = getTypeId(level.getTypeName(i));
+		}
+		return typeIds;
+	}
+
+	/**
+	 * @return the flags of the registered type for each of the level's type ids, 0 where nothing is registered,
+	 * see LevelData.withTypeFlags
+	 */
+	public byte[] resolveFlags(LevelData level) {
+		final byte[] flags = new byte[level.getTypeCount()];
+		for (int i = 0; i < flags.length; i++) {
+			final short typeId = getTypeId(level.getTypeName(i));
+			if (typeId != UNKNOWN_TYPE) {
+				flags[i] = (triggers.get(typeId) != null) ? TriggerType.FLAGS : types.get(typeId).getFlags();
+			}
+		}
+		return flags;
+	}
+
+	/**
+	 * @return the registered type, null if the id is a trigger's
+	 */
+	public EntityType<?> getType(short typeId) {
+		return types.get(typeId);
+	}
+
+	/**
+	 * Takes an entity of the type from its pool and seats it, the entity's tag is set to the type id.
+	 * Triggers have nothing to obtain
+	 */
+	public IEntity obtain(short typeId, int x, int y, int width, int height) {
+		return types.get(typeId).obtain(typeId, x, y, width, height);
+	}
+
+	/**
+	 * Hands a sensor the player reached on to its type or trigger, see EntityType.onTrigger
+	 * @param entity : the sensor's entity, null for a trigger
+	 */
+	public void onTrigger(short typeId, IEntity entity) {
+		final TriggerType trigger = triggers.get(typeId);
+		if (trigger != null) {
+			trigger.onTrigger();
+		} else {
+			types.get(typeId).trigger(entity);
+		}
+	}
+
+	/**
+	 * Hands a contact between the player and an entity on to its type, see EntityType.onPlayerContact
+	 */
+	public void onPlayerContact(IEntity entity, int event) {
+		types.get(entity.getTag()).playerContact(entity, event);
+	}
+
+	/**
+	 * Gives an entity back to its pool, it has to be detached and have its body destroyed already
+	 */
+	public void recycle(IEntity entity) {
+		types.get(entity.getTag()).recycle(entity);
+	}
+}
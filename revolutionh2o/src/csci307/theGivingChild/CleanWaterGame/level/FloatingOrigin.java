@@ -0,0 +1,91 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: Keeps the camera, and so the player and the bodies around it, close to the origin. Once the
+*              camera gets far enough from it the whole world is moved back in one go, the level keeps its
+*              own coordinates and getX() says where the origin currently is in them. Floats lose precision
+*              the further they are from zero, this way Box2D and the entity transforms work the same at
+*              the end of a long level as at the start.
+*
+* History:
+*    10/18/26 original 1.0
+*    10/18/26 converts between level and scene x for the streamers
+*/
+package csci307.theGivingChild.CleanWaterGame.level;
+
+import org.andengine.engine.camera.BoundCamera;
+import org.andengine.engine.handler.IUpdateHandler;
+
+public class FloatingOrigin implements IUpdateHandler {
+
+	/**
+	 * The world is moved in whole steps of this many pixels, 100 meters. Positions in meters then move by
+	 * a whole number, which floats can subtract without rounding.
+	 */
+	public static final int SHIFT_STEP = 3200;
+
+	/**
+	 * Moves whatever lives in the scene's coordinates
+	 */
+	public interface IShiftListener {
+		/**
+		 * @param shift : pixels everything has to move to the left
+		 */
+		public void onOriginShift(int shift);
+	}
+
+	private final BoundCamera camera;
+	private final IShiftListener listener;
+
+	//level x of the scene's origin
+	private int x = 0;
+
+	/**
+	 * Register it after the physics world, so the bodies are moved after they stepped, and before anything that
+	 * spawns from the level
+	 */
+	public FloatingOrigin(BoundCamera camera, IShiftListener listener) {
+		this.camera = camera;
+		this.listener = listener;
+	}
+
+	/**
+	 * @return the level x of the scene's origin, level x - getX() is the scene x
+	 */
+	public int getX() {
+		return x;
+	}
+
+	/**
+	 * @param sceneX : an x in the scene's coordinates, like the camera's or an entity's
+	 * @return the same x in the level's coordinates, the records'
+	 */
+	public float toLevelX(float sceneX) {
+		return sceneX + x;
+	}
+
+	/**
+	 * @return the scene x of a level x
+	 */
+	public int toSceneX(int levelX) {
+		return levelX - x;
+	}
+
+	@Override
+	public void onUpdate(float pSecondsElapsed) {
+		if (camera.getXMin() < SHIFT_STEP) {
+			return;
+		}
+		final int shift = ((int) camera.getXMin() / SHIFT_STEP) * SHIFT_STEP;
+		x += shift;
+
+		listener.onOriginShift(shift);
+		camera.setBounds(camera.getBoundsXMin() - shift, camera.getBoundsYMin(), camera.getBoundsXMax() - shift, camera.getBoundsYMax());
+		camera.setCenter(camera.getCenterX() - shift, camera.getCenterY());
+	}
+
+	@Override
+	public void reset() {
+	}
+}
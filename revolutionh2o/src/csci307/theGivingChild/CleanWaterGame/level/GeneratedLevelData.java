@@ -0,0 +1,132 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: A LevelData that is filled in while the level is played. Records are kept in a fixed ring,
+*              so only the most recent ones can be read back; the LevelStreamer never looks further back
+*              than what is on screen.
+*
+* History:
+*    10/18/26 original 1.0
+*    10/18/26 withTypeFlags returns a view of the same ring instead of changing the level
+*/
+package csci307.theGivingChild.CleanWaterGame.level;
+
+class GeneratedLevelData extends LevelData {
+
+	/**
+	 * The records, shared by a level and the views withTypeFlags makes of it
+	 */
+	private static class Ring {
+		private final int mask;
+		private final int[] x;
+		private final int[] y;
+		private final int[] widths;
+		private final int[] heights;
+		private final short[] types;
+		private int count = 0;
+		private int maxWidth = 0;
+
+		private Ring(int capacity) {
+			mask = capacity - 1;
+			x = new int[capacity];
+			y = new int[capacity];
+			widths = new int[capacity];
+			heights = new int[capacity];
+			types = new short[capacity];
+		}
+	}
+
+	private final String[] typeNames;
+	private final Ring ring;
+	private final byte[] typeFlags;
+
+	/**
+	 * @param capacity : how many records are kept, a power of two
+	 */
+	public GeneratedLevelData(int width, int height, String[] typeNames, int capacity) {
+		this(width, height, typeNames, new Ring(capacity), null);
+	}
+
+	private GeneratedLevelData(int width, int height, String[] typeNames, Ring ring, byte[] typeFlags) {
+		super(width, height, typeNames, 0, null, null, null, null, null);
+		this.typeNames = typeNames;
+		this.ring = ring;
+		this.typeFlags = typeFlags;
+	}
+
+	/**
+	 * Adds a record, records have to be added in x order. The views of the level see it too
+	 */
+	public void add(int x, int y, int width, int height, short type) {
+		final Ring ring = this.ring;
+		final int i = ring.count & ring.mask;
+		ring.x[i] = x;
+		ring.y[i] = y;
+		ring.widths[i] = width;
+		ring.heights[i] = height;
+		ring.types[i] = type;
+		ring.maxWidth = Math.max(ring.maxWidth, width);
+		ring.count++;
+	}
+
+	/**
+	 * The records are still being added, so instead of a copy this returns a view of the same ring that looks
+	 * the flags up by type. This level is left as it is
+	 */
+	@Override
+	public LevelData withTypeFlags(byte[] typeFlags) {
+		return new GeneratedLevelData(getWidth(), getHeight(), typeNames, ring, typeFlags);
+	}
+
+	/**
+	 * @return the number of records added so far, not how many are kept
+	 */
+	@Override
+	public int getEntityCount() {
+		return ring.count;
+	}
+
+	/**
+	 * @return the oldest record still kept
+	 */
+	@Override
+	public int getFirstEntity() {
+		return Math.max(0, ring.count - (ring.mask + 1));
+	}
+
+	@Override
+	public int getMaxWidth() {
+		return ring.maxWidth;
+	}
+
+	@Override
+	public int getX(int i) {
+		return ring.x[i & ring.mask];
+	}
+
+	@Override
+	public int getY(int i) {
+		return ring.y[i & ring.mask];
+	}
+
+	@Override
+	public int getWidth(int i) {
+		return ring.widths[i & ring.mask];
+	}
+
+	@Override
+	public int getHeight(int i) {
+		return ring.heights[i & ring.mask];
+	}
+
+	@Override
+	public short getType(int i) {
+		return ring.types[i & ring.mask];
+	}
+
+	@Override
+	public byte getFlags(int i) {
+		return (typeFlags == null) ? 0 : typeFlags[ring.types[i & ring.mask]];
+	}
+}
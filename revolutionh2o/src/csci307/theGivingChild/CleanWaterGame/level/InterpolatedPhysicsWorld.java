@@ -0,0 +1,123 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: A physics world that steps at a fixed rate whatever the frame rate. Each update adds the real
+*              time elapsed and runs as many steps as it covers, none on some frames, several after a long one,
+*              so the game never goes into slow motion. The physics connectors run once a step with the step's
+*              length as the seconds elapsed, and the sprites are then drawn between where their bodies were
+*              before the last step and where they are now, by how far the frame is into the next step.
+*
+* History:
+*    10/18/26 original 1.0
+*/
+package csci307.theGivingChild.CleanWaterGame.level;
+
+import org.andengine.entity.shape.IShape;
+import org.andengine.extension.physics.box2d.PhysicsConnector;
+import org.andengine.extension.physics.box2d.PhysicsConnectorManager;
+import org.andengine.extension.physics.box2d.PhysicsWorld;
+import org.andengine.extension.physics.box2d.util.constants.PhysicsConstants;
+
+import com.badlogic.gdx.math.Vector2;
+
+public class InterpolatedPhysicsWorld extends PhysicsWorld {
+
+	private final float timeStep;
+	//time beyond this many steps in one update is dropped, so a long hitch does not make the next frames longer
+	private final int maximumStepsPerUpdate;
+	private float secondsElapsedAccumulator = 0;
+
+	//where the body of each connector was before the last step, in meters, by the connector's index
+	private int snapshotCount = 0;
+	private PhysicsConnector[] snapshotConnectors = new PhysicsConnector[32];
+	private float[] previousX = new float[32];
+	private float[] previousY = new float[32];
+
+	public InterpolatedPhysicsWorld(int stepsPerSecond, int maximumStepsPerUpdate, Vector2 gravity, boolean allowSleep, int velocityIterations, int positionIterations) {
+		super(gravity, allowSleep, velocityIterations, positionIterations);
+		this.timeStep = 1f / stepsPerSecond;
+		this.maximumStepsPerUpdate = maximumStepsPerUpdate;
+	}
+
+	@Override
+	public void onUpdate(float pSecondsElapsed) {
+		mRunnableHandler.onUpdate(pSecondsElapsed);
+		secondsElapsedAccumulator += pSecondsElapsed;
+		int steps = 0;
+		while (secondsElapsedAccumulator >= timeStep && steps < maximumStepsPerUpdate) {
+			snapshot();
+			mWorld.step(timeStep, mVelocityIterations, mPositionIterations);
+			mPhysicsConnectorManager.onUpdate(timeStep);
+			secondsElapsedAccumulator -= timeStep;
+			steps++;
+		}
+		if (secondsElapsedAccumulator >= timeStep) {
+			secondsElapsedAccumulator %= timeStep;
+		}
+		interpolate(secondsElapsedAccumulator / timeStep);
+	}
+
+	/**
+	 * Moves the positions kept from before the last step along with the bodies, when the whole world is moved
+	 * @param meters : added to every x
+	 */
+	public void translateSnapshot(float meters) {
+		for (int i = 0; i < snapshotCount; i++) {
+			previousX[i] += meters;
+		}
+	}
+
+	@Override
+	public void reset() {
+		super.reset();
+		for (int i = 0; i < snapshotCount; i++) {
+			snapshotConnectors[i] = null;
+		}
+		snapshotCount = 0;
+		secondsElapsedAccumulator = 0;
+	}
+
+	private void snapshot() {
+		final PhysicsConnectorManager connectors = mPhysicsConnectorManager;
+		final int count = connectors.size();
+		if (count > snapshotConnectors.length) {
+			final int capacity = Math.max(count, snapshotConnectors.length * 2);
+			//the old entries are all overwritten below
+			snapshotConnectors = new PhysicsConnector[capacity];
+			previousX = new float[capacity];
+			previousY = new float[capacity];
+		}
+		for (int i = 0; i < count; i++) {
+			final PhysicsConnector connector = connectors.get(i);
+			final Vector2 position = connector.getBody().getPosition();
+			snapshotConnectors[i] = connector;
+			previousX[i] = position.x;
+			previousY[i] = position.y;
+		}
+		for (int i = count; i < snapshotCount; i++) {
+			snapshotConnectors[i] = null;
+		}
+		snapshotCount = count;
+	}
+
+	/**
+	 * Draws each sprite part of the way from its body's last position to its current one. A connector registered
+	 * or moved in the list since the last step was put where its body is by the step, or keeps where it was seated
+	 * @param alpha : how far the frame is into the next step, from 0 to 1
+	 */
+	private void interpolate(float alpha) {
+		final PhysicsConnectorManager connectors = mPhysicsConnectorManager;
+		final int count = Math.min(connectors.size(), snapshotCount);
+		final float ratio = PhysicsConstants.PIXEL_TO_METER_RATIO_DEFAULT;
+		for (int i = 0; i < count; i++) {
+			final PhysicsConnector connector = connectors.get(i);
+			if (snapshotConnectors[i] != connector || !connector.isUpdatePosition()) {
+				continue;
+			}
+			final Vector2 position = connector.getBody().getPosition();
+			final IShape shape = connector.getShape();
+			shape.setPosition((previousX[i] + (position.x - previousX[i]) * alpha) * ratio, (previousY[i] + (position.y - previousY[i]) * alpha) * ratio);
+		}
+	}
+}
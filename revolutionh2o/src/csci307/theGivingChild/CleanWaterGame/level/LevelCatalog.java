@@ -0,0 +1,250 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: What the game needs to know about each level without playing it: its act, the level after it,
+*              its width and how many collectables and goal items it has. Built once from the level files,
+*              which are found by their names, actNsceneM, in the assets and in the acts' asset packs, so a
+*              new act only needs its pack.
+*
+* History:
+*    10/18/26 original 1.0
+*/
+package csci307.theGivingChild.CleanWaterGame.level;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import android.content.res.AssetManager;
+
+public class LevelCatalog {
+
+	private static final Pattern LEVEL_FILE = Pattern.compile("act(\\d+)scene(\\d+)\\.(lvl|xml)");
+
+	public static class LevelInfo {
+		private final String levelID;
+		private final int act;
+		private final int scene;
+		private final int width;
+		private final int collectableCount;
+		private final String goalType;
+		private final int goalCount;
+		private final AssetPack pack;
+		private LevelInfo previous;
+		private LevelInfo next;
+		private int index;
+
+		private LevelInfo(String levelID, int act, int scene, int width, int collectableCount, String goalType, int goalCount, AssetPack pack) {
+			this.levelID = levelID;
+			this.act = act;
+			this.scene = scene;
+			this.width = width;
+			this.collectableCount = collectableCount;
+			this.goalType = goalType;
+			this.goalCount = goalCount;
+			this.pack = pack;
+		}
+
+		public String getLevelID() {
+			return levelID;
+		}
+
+		public int getAct() {
+			return act;
+		}
+
+		public int getScene() {
+			return scene;
+		}
+
+		public int getWidth() {
+			return width;
+		}
+
+		public int getCollectableCount() {
+			return collectableCount;
+		}
+
+		/**
+		 * @return the goal item of the level, null if it has none
+		 */
+		public String getGoalType() {
+			return goalType;
+		}
+
+		public int getGoalCount() {
+			return goalCount;
+		}
+
+		/**
+		 * @return the pack the level is in, null if it is a loose asset
+		 */
+		public AssetPack getPack() {
+			return pack;
+		}
+
+		/**
+		 * @return the level before it in the same act, null for the first
+		 */
+		public LevelInfo getPrevious() {
+			return previous;
+		}
+
+		/**
+		 * @return the level after it in the same act, null for the last
+		 */
+		public LevelInfo getNext() {
+			return next;
+		}
+
+		/**
+		 * @return its index in the catalog
+		 */
+		public int getIndex() {
+			return index;
+		}
+	}
+
+	private final ArrayList<LevelInfo> levels;
+
+	private LevelCatalog(ArrayList<LevelInfo> levels) {
+		this.levels = levels;
+	}
+
+	/**
+	 * Reads every level in the assets and in the packs under assets/pack/, the compiled .lvl when there is one.
+	 * The packs stay open for the levels to be loaded from.
+	 * @param collectableType : the type counted as collectables
+	 * @param goalTypes : the types that can be a level's goal item, a level's goal is the first of them it has
+	 */
+	public static LevelCatalog build(AssetManager assets, String collectableType, String[] goalTypes) throws IOException {
+		final ArrayList<LevelInfo> levels = new ArrayList<LevelInfo>();
+		final String[] files = assets.list(LevelLoader.LEVEL_DIRECTORY);
+		for (String file : files) {
+			final Matcher matcher = LEVEL_FILE.matcher(file);
+			if (!matcher.matches()) {
+				continue;
+			}
+			final String levelID = file.substring(0, file.lastIndexOf('.'));
+			if (find(levels, levelID) != null) {
+				//both the .lvl and the xml are there
+				continue;
+			}
+			levels.add(readLevel(LevelLoader.loadFromAsset(assets, levelID), levelID, Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)), null, collectableType, goalTypes));
+		}
+
+		for (String file : assets.list(AssetPack.PACK_DIRECTORY)) {
+			if (!file.endsWith(AssetPack.PACK_EXTENSION)) {
+				continue;
+			}
+			final AssetPack pack = AssetPack.open(assets, AssetPack.PACK_PATH + file);
+			for (int i = 0; i < pack.getEntryCount(); i++) {
+				final String entry = pack.getEntryName(i);
+				if (!entry.startsWith(LevelLoader.LEVEL_PATH)) {
+					continue;
+				}
+				final Matcher matcher = LEVEL_FILE.matcher(entry.substring(LevelLoader.LEVEL_PATH.length()));
+				if (!matcher.matches()) {
+					continue;
+				}
+				final String levelID = entry.substring(LevelLoader.LEVEL_PATH.length(), entry.lastIndexOf('.'));
+				if (find(levels, levelID) != null) {
+					continue;
+				}
+				levels.add(readLevel(LevelLoader.loadFromPack(pack, levelID), levelID, Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)), pack, collectableType, goalTypes));
+			}
+		}
+
+		Collections.sort(levels, new Comparator<LevelInfo>() {
+			@Override
+			public int compare(LevelInfo lhs, LevelInfo rhs) {
+				return (lhs.act != rhs.act) ? lhs.act - rhs.act : lhs.scene - rhs.scene;
+			}
+		});
+		for (int i = 0; i < levels.size(); i++) {
+			final LevelInfo level = levels.get(i);
+			level.index = i;
+			if (i > 0 && levels.get(i - 1).act == level.act) {
+				level.previous = levels.get(i - 1);
+				level.previous.next = level;
+			}
+		}
+		return new LevelCatalog(levels);
+	}
+
+	private static LevelInfo readLevel(LevelData level, String levelID, int act, int scene, AssetPack pack, String collectableType, String[] goalTypes) {
+		final int[] typeCounts = new int[level.getTypeCount()];
+		for (int i = 0; i < level.getEntityCount(); i++) {
+			typeCounts[level.getType(i)]++;
+		}
+
+		int collectableCount = 0;
+		String goalType = null;
+		int goalCount = 0;
+		for (int t = 0; t < typeCounts.length; t++) {
+			if (level.getTypeName(t).equals(collectableType)) {
+				collectableCount = typeCounts[t];
+			}
+		}
+		for (int g = 0; g < goalTypes.length && goalType == null; g++) {
+			for (int t = 0; t < typeCounts.length; t++) {
+				if (level.getTypeName(t).equals(goalTypes[g]) && typeCounts[t] > 0) {
+					goalType = goalTypes[g];
+					goalCount = typeCounts[t];
+				}
+			}
+		}
+		return new LevelInfo(levelID, act, scene, level.getWidth(), collectableCount, goalType, goalCount, pack);
+	}
+
+	private static LevelInfo find(ArrayList<LevelInfo> levels, String levelID) {
+		for (LevelInfo level : levels) {
+			if (level.levelID.equals(levelID)) {
+				return level;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the level, null if it is not a level file i.e. an endless run
+	 */
+	public LevelInfo getLevel(String levelID) {
+		return find(levels, levelID);
+	}
+
+	public LevelInfo getLevel(int index) {
+		return levels.get(index);
+	}
+
+	public int getLevelCount() {
+		return levels.size();
+	}
+
+	/**
+	 * @return the first level of the act, null if there is no such act
+	 */
+	public LevelInfo getFirstLevel(int act) {
+		for (LevelInfo level : levels) {
+			if (level.act == act) {
+				return level;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return the last level of the act, null if there is no such act
+	 */
+	public LevelInfo getLastLevel(int act) {
+		LevelInfo level = getFirstLevel(act);
+		while (level != null && level.next != null) {
+			level = level.next;
+		}
+		return level;
+	}
+}
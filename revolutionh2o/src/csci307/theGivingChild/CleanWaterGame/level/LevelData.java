@@ -0,0 +1,195 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: The entities of one level as read by the LevelLoader, sorted by x. One array per field
+*              so a record is about 20 bytes and looking up what is near some x is a binary search over
+*              the x array. Built once per level and shared by everything that needs to know about it.
+*
+* History:
+*    10/18/26 original 1.0
+*/
+package csci307.theGivingChild.CleanWaterGame.level;
+
+public class LevelData {
+
+	/**
+	 * The player collides with it
+	 */
+	public static final byte FLAG_SOLID = 1;
+	/**
+	 * Something happens when the player overlaps it, triggers and collectables
+	 */
+	public static final byte FLAG_SENSOR = 2;
+	/**
+	 * It moves once spawned, the record is only where it starts
+	 */
+	public static final byte FLAG_DYNAMIC = 4;
+	/**
+	 * Nothing is spawned for it, the record is all there is. Triggers that are only a box in the level
+	 */
+	public static final byte FLAG_NO_ENTITY = 8;
+
+	/**
+	 * The width of a level that has no end, like an endless run
+	 */
+	public static final int UNBOUNDED_WIDTH = -1;
+
+	private final int width;
+	private final int height;
+	private final String[] typeNames;
+
+	private final int count;
+	private final int[] x;
+	private final int[] y;
+	private final int[] widths;
+	private final int[] heights;
+	private final short[] types;
+	private final byte[] flags;
+	private final int maxWidth;
+
+	/**
+	 * The arrays are used as they are, the loader is expected to hand them over already sorted by x
+	 * @param width : width of the level, UNBOUNDED_WIDTH if it has no end
+	 * @param height : height of the level
+	 * @param typeNames : the type table, a type id is an index into it
+	 * @param count : number of entities
+	 */
+	public LevelData(int width, int height, String[] typeNames, int count, int[] x, int[] y, int[] widths, int[] heights, short[] types) {
+		this(width, height, typeNames, count, x, y, widths, heights, types, null);
+	}
+
+	private LevelData(int width, int height, String[] typeNames, int count, int[] x, int[] y, int[] widths, int[] heights, short[] types, byte[] flags) {
+		this.width = width;
+		this.height = height;
+		this.typeNames = typeNames;
+		this.count = count;
+		this.x = x;
+		this.y = y;
+		this.widths = widths;
+		this.heights = heights;
+		this.types = types;
+		this.flags = flags;
+
+		int widest = 0;
+		for (int i = 0; i < count; i++) {
+			widest = Math.max(widest, widths[i]);
+		}
+		maxWidth = widest;
+	}
+
+	/**
+	 * The same level with the flags of each record filled in from its type, the records themselves are shared
+	 * @param typeFlags : the flags of each type id
+	 */
+	public LevelData withTypeFlags(byte[] typeFlags) {
+		final byte[] recordFlags = new byte[count];
+		for (int i = 0; i < count; i++) {
+			recordFlags[i] = typeFlags[types[i]];
+		}
+		return new LevelData(width, height, typeNames, count, x, y, widths, heights, types, recordFlags);
+	}
+
+	/**
+	 * @return the width of the level, UNBOUNDED_WIDTH if it has no end
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	public boolean isUnbounded() {
+		return width == UNBOUNDED_WIDTH;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getEntityCount() {
+		return count;
+	}
+
+	/**
+	 * @return the first record that can be read, records before it are gone
+	 */
+	public int getFirstEntity() {
+		return 0;
+	}
+
+	/**
+	 * @return the width of the widest record
+	 */
+	public int getMaxWidth() {
+		return maxWidth;
+	}
+
+	public int getTypeCount() {
+		return typeNames.length;
+	}
+
+	public String getTypeName(int typeId) {
+		return typeNames[typeId];
+	}
+
+	public int getX(int i) {
+		return x[i];
+	}
+
+	public int getY(int i) {
+		return y[i];
+	}
+
+	public int getWidth(int i) {
+		return widths[i];
+	}
+
+	public int getHeight(int i) {
+		return heights[i];
+	}
+
+	public short getType(int i) {
+		return types[i];
+	}
+
+	/**
+	 * @return the FLAG_ bits of the record, 0 until the level has been given its type flags
+	 */
+	public byte getFlags(int i) {
+		return (flags == null) ? 0 : flags[i];
+	}
+
+	/**
+	 * @return the first record with its x at or right of x, getEntityCount() if there is none
+	 */
+	public int findFirst(int x) {
+		int low = getFirstEntity();
+		int high = getEntityCount();
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			if (getX(middle) < x) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Finds the records that overlap left to right, without allocating anything
+	 * @param flags : only records with one of these FLAG_ bits, 0 for all of them
+	 * @param result : filled with the indices of the records, in x order
+	 * @return how many were found, at most result.length
+	 */
+	public int query(float left, float right, int flags, int[] result) {
+		final int halfWidth = (getMaxWidth() + 1) / 2;
+		final int end = getEntityCount();
+		int found = 0;
+		for (int i = findFirst((int) left - halfWidth - 1); i < end && getX(i) - halfWidth <= right && found < result.length; i++) {
+			if ((flags == 0 || (getFlags(i) & flags) != 0) && getX(i) + getWidth(i) * 0.5f >= left && getX(i) - getWidth(i) * 0.5f <= right) {
+				result[found++] = i;
+			}
+		}
+		return found;
+	}
+}
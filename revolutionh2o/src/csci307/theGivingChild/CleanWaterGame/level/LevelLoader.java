@@ -0,0 +1,242 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: Reads the binary .lvl files made by LevelCompiler.pl into a LevelData, from the assets or
+*              from an act's AssetPack. Falls back to parsing the level xml when a level has not been compiled yet.
+*
+* History:
+*    10/18/26 original 1.0
+*/
+package csci307.theGivingChild.CleanWaterGame.level;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.andengine.util.debug.Debug;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+
+public class LevelLoader {
+
+	public static final String LEVEL_DIRECTORY = "level";
+	public static final String LEVEL_PATH = LEVEL_DIRECTORY + "/";
+	public static final String BINARY_EXTENSION = ".lvl";
+	public static final String XML_EXTENSION = ".xml";
+
+	private static final int MAGIC = ('H' << 24) | ('2' << 16) | ('O' << 8) | 'L';
+	private static final int VERSION = 1;
+
+	private static final String TAG_LEVEL = "level";
+	private static final String TAG_ENTITY = "entity";
+
+	private LevelLoader() {
+	}
+
+	/**
+	 * Loads a level from the assets, the compiled .lvl is used when there is one
+	 * @param assets : the activity's asset manager
+	 * @param levelID : name of the level i.e. act1scene1
+	 * @return the level sorted by x
+	 */
+	public static LevelData loadFromAsset(AssetManager assets, String levelID) throws IOException {
+		final ByteBuffer buffer = mapAsset(assets, LEVEL_PATH + levelID + BINARY_EXTENSION);
+		if (buffer == null) {
+			Debug.w("No compiled level for " + levelID + ", run LevelCompiler.pl. Parsing the xml instead.");
+			return loadXml(assets.open(LEVEL_PATH + levelID + XML_EXTENSION));
+		}
+		return read(buffer);
+	}
+
+	/**
+	 * Loads a level from an act's asset pack, the compiled .lvl is used when there is one
+	 * @param levelID : name of the level i.e. act2scene1
+	 * @return the level sorted by x
+	 */
+	public static LevelData loadFromPack(AssetPack pack, String levelID) throws IOException {
+		final ByteBuffer buffer = pack.getEntry(LEVEL_PATH + levelID + BINARY_EXTENSION);
+		if (buffer == null) {
+			Debug.w("No compiled level for " + levelID + " in " + pack.getPath() + ", run LevelCompiler.pl. Parsing the xml instead.");
+			return loadXml(pack.openEntry(LEVEL_PATH + levelID + XML_EXTENSION));
+		}
+		return read(buffer);
+	}
+
+	/**
+	 * Memory maps an asset when it is stored uncompressed in the apk, otherwise copies it into a buffer.
+	 * aapt compresses unknown extensions unless told not to, so the copy is the usual case for .lvl files;
+	 * they are only a few kB so it is still a single read.
+	 * @return null if the asset does not exist
+	 */
+	public static ByteBuffer mapAsset(AssetManager assets, String path) throws IOException {
+		try {
+			final AssetFileDescriptor descriptor = assets.openFd(path);
+			final FileInputStream input = descriptor.createInputStream();
+			try {
+				final FileChannel channel = input.getChannel();
+				return channel.map(FileChannel.MapMode.READ_ONLY, descriptor.getStartOffset(), descriptor.getLength());
+			} finally {
+				input.close();
+				descriptor.close();
+			}
+		} catch (FileNotFoundException e) {
+			//either missing or compressed, try reading it as a stream
+		}
+
+		final InputStream input;
+		try {
+			input = assets.open(path, AssetManager.ACCESS_BUFFER);
+		} catch (FileNotFoundException e) {
+			return null;
+		}
+		try {
+			byte[] bytes = new byte[Math.max(input.available(), 1024)];
+			int length = 0;
+			int read;
+			while ((read = input.read(bytes, length, bytes.length - length)) != -1) {
+				length += read;
+				if (length == bytes.length) {
+					final byte[] larger = new byte[bytes.length * 2];
+					System.arraycopy(bytes, 0, larger, 0, length);
+					bytes = larger;
+				}
+			}
+			return ByteBuffer.wrap(bytes, 0, length);
+		} finally {
+			input.close();
+		}
+	}
+
+	/**
+	 * Reads a compiled level, see LevelCompiler.pl for the layout
+	 */
+	public static LevelData read(ByteBuffer buffer) throws IOException {
+		if (buffer.getInt() != MAGIC) {
+			throw new IOException("Not a compiled level");
+		}
+		final int version = buffer.getShort();
+		if (version != VERSION) {
+			throw new IOException("Unsupported level version " + version);
+		}
+		final int typeCount = buffer.getShort();
+		final int width = buffer.getInt();
+		final int height = buffer.getInt();
+		final int count = buffer.getInt();
+
+		final String[] typeNames = new String[typeCount];
+		final byte[] name = new byte[255];
+		for (int i = 0; i < typeCount; i++) {
+			final int length = buffer.get() & 0xFF;
+			buffer.get(name, 0, length);
+			typeNames[i] = new String(name, 0, length, "US-ASCII").intern();
+		}
+		buffer.position((buffer.position() + 3) & ~3);
+
+		final int[] x = new int[count];
+		final int[] y = new int[count];
+		final int[] widths = new int[count];
+		final int[] heights = new int[count];
+		final short[] types = new short[count];
+		for (int i = 0; i < count; i++) {
+			x[i] = buffer.getInt();
+			y[i] = buffer.getShort();
+			widths[i] = buffer.getShort();
+			heights[i] = buffer.getShort();
+			types[i] = buffer.getShort();
+		}
+
+		return new LevelData(width, height, typeNames, count, x, y, widths, heights, types);
+	}
+
+	/**
+	 * Parses a level xml into a LevelData, this is the slow path for levels that are not compiled
+	 */
+	public static LevelData loadXml(InputStream input) throws IOException {
+		final XmlLevelHandler handler = new XmlLevelHandler();
+		try {
+			SAXParserFactory.newInstance().newSAXParser().parse(input, handler);
+		} catch (SAXException e) {
+			throw new IOException(e.getMessage());
+		} catch (ParserConfigurationException e) {
+			throw new IOException(e.getMessage());
+		} finally {
+			input.close();
+		}
+		return handler.toLevelData();
+	}
+
+	private static class XmlLevelHandler extends DefaultHandler {
+		private int width;
+		private int height;
+		private final ArrayList<String> typeNames = new ArrayList<String>();
+		private final ArrayList<int[]> entities = new ArrayList<int[]>();
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+			final String tag = (localName == null || localName.length() == 0) ? qName : localName;
+			if (tag.equals(TAG_LEVEL)) {
+				width = getInt(attributes, "width");
+				height = getInt(attributes, "height");
+			} else if (tag.equals(TAG_ENTITY)) {
+				final String type = attributes.getValue("type");
+				if (type == null) {
+					throw new SAXException("Entity without type");
+				}
+				int typeId = typeNames.indexOf(type);
+				if (typeId < 0) {
+					typeId = typeNames.size();
+					typeNames.add(type.intern());
+				}
+				entities.add(new int[] { getInt(attributes, "x"), getInt(attributes, "y"), getInt(attributes, "width"), getInt(attributes, "height"), typeId });
+			}
+		}
+
+		private int getInt(Attributes attributes, String name) throws SAXException {
+			final String value = attributes.getValue(name);
+			if (value == null) {
+				throw new SAXException("Missing attribute " + name);
+			}
+			return Integer.parseInt(value);
+		}
+
+		private LevelData toLevelData() {
+			final int[][] sorted = entities.toArray(new int[entities.size()][]);
+			//stable, so entities at the same x keep their xml order like the compiler does
+			Arrays.sort(sorted, new Comparator<int[]>() {
+				@Override
+				public int compare(int[] lhs, int[] rhs) {
+					return lhs[0] < rhs[0] ? -1 : (lhs[0] == rhs[0] ? 0 : 1);
+				}
+			});
+
+			final int count = sorted.length;
+			final int[] x = new int[count];
+			final int[] y = new int[count];
+			final int[] widths = new int[count];
+			final int[] heights = new int[count];
+			final short[] types = new short[count];
+			for (int i = 0; i < count; i++) {
+				x[i] = sorted[i][0];
+				y[i] = sorted[i][1];
+				widths[i] = sorted[i][2];
+				heights[i] = sorted[i][3];
+				types[i] = (short) sorted[i][4];
+			}
+			return new LevelData(width, height, typeNames.toArray(new String[typeNames.size()]), count, x, y, widths, heights, types);
+		}
+	}
+}
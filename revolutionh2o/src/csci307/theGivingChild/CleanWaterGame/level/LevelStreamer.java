@@ -0,0 +1,202 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: Spawns the level entities (or anything else built from a LevelData, like the merged
+*              colliders) just ahead of the camera and despawns them once they scroll off the left edge,
+*              so only what is near the screen exists at any time
+*
+* History:
+*    10/18/26 original 1.0
+*    10/18/26 takes the FloatingOrigin in its constructor
+*/
+package csci307.theGivingChild.CleanWaterGame.level;
+
+import org.andengine.engine.camera.Camera;
+import org.andengine.engine.handler.IUpdateHandler;
+
+public class LevelStreamer<T> implements IUpdateHandler {
+
+	public static final float DEFAULT_LOOKAHEAD = 200;
+	public static final float DEFAULT_DESPAWN_MARGIN = 200;
+
+	/**
+	 * Builds and tears down whatever the streamer spawns for a record
+	 */
+	public interface ISpawner<T> {
+		/**
+		 * @param index : index of the record in the LevelData
+		 * @return what was spawned, or null if the record should not be streamed (it will never be despawned)
+		 */
+		public T onSpawn(int index);
+
+		public void onDespawn(int index, T spawned);
+	}
+
+	private final LevelData level;
+	private final Camera camera;
+	private final ISpawner<T> spawner;
+	private float lookahead = DEFAULT_LOOKAHEAD;
+	private float despawnMargin = DEFAULT_DESPAWN_MARGIN;
+	private final FloatingOrigin origin;
+
+	//next record to spawn, records are sorted by x so everything before it has been spawned
+	private int cursor = 0;
+
+	//what is live, in the order it was spawned, which is index order
+	private int liveCount = 0;
+	private int[] liveIndices = new int[32];
+	private Object[] liveSpawned = new Object[32];
+
+	/**
+	 * @param origin : turns the camera's edges into level x
+	 */
+	public LevelStreamer(LevelData level, Camera camera, FloatingOrigin origin, ISpawner<T> spawner) {
+		this.level = level;
+		this.camera = camera;
+		this.origin = origin;
+		this.spawner = spawner;
+	}
+
+	/**
+	 * How far past the right edge of the camera entities are spawned
+	 */
+	public void setLookahead(float lookahead) {
+		this.lookahead = lookahead;
+	}
+
+	/**
+	 * How far past the left edge of the camera entities are kept before they are despawned
+	 */
+	public void setDespawnMargin(float despawnMargin) {
+		this.despawnMargin = despawnMargin;
+	}
+
+	public int getLiveCount() {
+		return liveCount;
+	}
+
+	/**
+	 * @return what is live for a record, null if it is not spawned or not streamed
+	 */
+	@SuppressWarnings("unchecked")
+	public T getSpawned(int index) {
+		int low = 0;
+		int high = liveCount - 1;
+		while (low <= high) {
+			final int middle = (low + high) >>> 1;
+			if (liveIndices[middle] < index) {
+				low = middle + 1;
+			} else if (liveIndices[middle] > index) {
+				high = middle - 1;
+			} else {
+				return (T) liveSpawned[middle];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Despawns a record before it scrolls off, like a collected collectable. It is not spawned again
+	 * @return false if the record is not live
+	 */
+	public boolean despawn(int index) {
+		int low = 0;
+		int high = liveCount - 1;
+		while (low <= high) {
+			final int middle = (low + high) >>> 1;
+			if (liveIndices[middle] < index) {
+				low = middle + 1;
+			} else if (liveIndices[middle] > index) {
+				high = middle - 1;
+			} else {
+				despawnAt(middle);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Despawns what was spawned for a record, when only that is known, like a platform that fell out of sight.
+	 * Looks through everything live, so it is meant for the odd one and not for every frame
+	 * @return false if it is not live
+	 */
+	public boolean despawnSpawned(T spawned) {
+		for (int i = 0; i < liveCount; i++) {
+			if (liveSpawned[i] == spawned) {
+				despawnAt(i);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public void onUpdate(float pSecondsElapsed) {
+		final float spawnEdge = origin.toLevelX(camera.getXMax()) + lookahead;
+		//a generated level only keeps its latest records
+		if (cursor < level.getFirstEntity()) {
+			cursor = level.getFirstEntity();
+		}
+		while (cursor < level.getEntityCount() && level.getX(cursor) - level.getWidth(cursor) / 2 <= spawnEdge) {
+			final T spawned = spawner.onSpawn(cursor);
+			if (spawned != null) {
+				track(cursor, spawned);
+			}
+			cursor++;
+		}
+
+		//the survivors are moved down in place so the live records stay in index order
+		final float despawnEdge = origin.toLevelX(camera.getXMin()) - despawnMargin;
+		int kept = 0;
+		for (int i = 0; i < liveCount; i++) {
+			final int index = liveIndices[i];
+			if (level.getX(index) + level.getWidth(index) / 2 < despawnEdge) {
+				spawner.onDespawn(index, (T) liveSpawned[i]);
+			} else {
+				liveIndices[kept] = index;
+				liveSpawned[kept] = liveSpawned[i];
+				kept++;
+			}
+		}
+		for (int i = kept; i < liveCount; i++) {
+			liveSpawned[i] = null;
+		}
+		liveCount = kept;
+	}
+
+	/**
+	 * Nothing to do, the scene tears down whatever is still live when it is disposed
+	 */
+	@Override
+	public void reset() {
+	}
+
+	@SuppressWarnings("unchecked")
+	private void despawnAt(int i) {
+		final int index = liveIndices[i];
+		final T spawned = (T) liveSpawned[i];
+		//the records after it are moved down so they stay in index order
+		System.arraycopy(liveIndices, i + 1, liveIndices, i, liveCount - i - 1);
+		System.arraycopy(liveSpawned, i + 1, liveSpawned, i, liveCount - i - 1);
+		liveCount--;
+		liveSpawned[liveCount] = null;
+		spawner.onDespawn(index, spawned);
+	}
+
+	private void track(int index, T spawned) {
+		if (liveCount == liveIndices.length) {
+			final int[] indices = new int[liveCount * 2];
+			final Object[] live = new Object[liveCount * 2];
+			System.arraycopy(liveIndices, 0, indices, 0, liveCount);
+			System.arraycopy(liveSpawned, 0, live, 0, liveCount);
+			liveIndices = indices;
+			liveSpawned = live;
+		}
+		liveIndices[liveCount] = index;
+		liveSpawned[liveCount] = spawned;
+		liveCount++;
+	}
+}
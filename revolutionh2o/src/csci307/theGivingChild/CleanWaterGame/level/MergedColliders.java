@@ -0,0 +1,61 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: The static colliders made by the ColliderMerger. Each group becomes one body and each
+*              of its boxes one fixture of that body.
+*
+* History:
+*    10/18/26 original 1.0
+*/
+package csci307.theGivingChild.CleanWaterGame.level;
+
+public class MergedColliders {
+
+	private final LevelData groups;
+	private final LevelData boxes;
+	private final int[] firstBox;
+
+	/**
+	 * @param groups : bounds of each group, typed with the collider type, sorted by left edge
+	 * @param boxes : the boxes of all groups, the boxes of a group are next to each other
+	 * @param firstBox : index of the first box of each group, with one extra entry holding the box count
+	 */
+	public MergedColliders(LevelData groups, LevelData boxes, int[] firstBox) {
+		this.groups = groups;
+		this.boxes = boxes;
+		this.firstBox = firstBox;
+	}
+
+	/**
+	 * Colliders where every box is a group of its own
+	 */
+	public MergedColliders(LevelData boxes) {
+		this(boxes, boxes, null);
+	}
+
+	/**
+	 * One record per body, this is what gets streamed
+	 */
+	public LevelData getGroups() {
+		return groups;
+	}
+
+	/**
+	 * One record per fixture
+	 */
+	public LevelData getBoxes() {
+		return boxes;
+	}
+
+	public int getFirstBox(int group) {
+		return (firstBox == null) ? group : firstBox[group];
+	}
+
+	/**
+	 * @return the index after the last box of the group
+	 */
+	public int getEndBox(int group) {
+		return (firstBox == null) ? group + 1 : firstBox[group + 1];
+	}
+}
@@ -0,0 +1,152 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: A fixed step physics world that steps Box2D on its own thread. The PipelinedEngine starts the
+*              step at the end of each update, so the last one of a frame runs while the frame is drawn and
+*              the update thread would only be waiting, and waits for it at the start of the next. Everything
+*              that touches the bodies, the streamers, the player, the timers and touch input, runs between
+*              the two on the update thread, touch input is queued there by the GameScene.
+*              Sprites follow their bodies one frame later than with the FixedStepPhysicsWorld.
+*
+* History:
+*    10/18/26 original 1.0
+*/
+package csci307.theGivingChild.CleanWaterGame.level;
+
+import org.andengine.extension.physics.box2d.PhysicsWorld;
+
+import com.badlogic.gdx.math.Vector2;
+
+public class PipelinedPhysicsWorld extends PhysicsWorld implements Runnable {
+
+	private final float timeStep;
+	private final int maximumStepsPerUpdate;
+	private float secondsElapsedAccumulator = 0;
+
+	//the rest is shared with the physics thread, guarded by the lock
+	private final Object lock = new Object();
+	private int steps = 0;
+	private boolean stepping = false;
+	private boolean quitting = false;
+	private RuntimeException failure;
+
+	/**
+	 * Same arguments as the FixedStepPhysicsWorld. It only steps once it is set on the PipelinedEngine
+	 */
+	public PipelinedPhysicsWorld(int stepsPerSecond, int maximumStepsPerUpdate, Vector2 gravity, boolean allowSleep, int velocityIterations, int positionIterations) {
+		super(gravity, allowSleep, velocityIterations, positionIterations);
+		this.timeStep = 1f / stepsPerSecond;
+		this.maximumStepsPerUpdate = maximumStepsPerUpdate;
+
+		final Thread worker = new Thread(this, "PhysicsStep");
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	/**
+	 * Moves the sprites to where the last steps left their bodies and works out the steps owed for this frame.
+	 * The contact listener is called on the physics thread, it must only record what it is told
+	 */
+	@Override
+	public void onUpdate(float pSecondsElapsed) {
+		mRunnableHandler.onUpdate(pSecondsElapsed);
+		secondsElapsedAccumulator += pSecondsElapsed;
+		int owed = 0;
+		while (secondsElapsedAccumulator >= timeStep && owed < maximumStepsPerUpdate) {
+			secondsElapsedAccumulator -= timeStep;
+			owed++;
+		}
+		synchronized (lock) {
+			steps += owed;
+		}
+		mPhysicsConnectorManager.onUpdate(pSecondsElapsed);
+	}
+
+	/**
+	 * Runs the steps owed on the physics thread, at the end of the frame's update
+	 */
+	public void startStep() {
+		synchronized (lock) {
+			if (steps > 0 && !quitting) {
+				stepping = true;
+				lock.notifyAll();
+			}
+		}
+	}
+
+	/**
+	 * Waits for the steps started last frame, at the start of the frame's update before anything touches the bodies
+	 * @throws RuntimeException : what a step threw on the physics thread, so it crashes the update thread instead
+	 */
+	public void awaitStep() throws InterruptedException {
+		synchronized (lock) {
+			while (stepping) {
+				lock.wait();
+			}
+			if (failure != null) {
+				final RuntimeException thrown = failure;
+				failure = null;
+				throw new RuntimeException("Physics step failed", thrown);
+			}
+		}
+	}
+
+	/**
+	 * Ends the physics thread when the level is disposed. It waits for the steps that are running, so the
+	 * bodies can be destroyed once it returns
+	 */
+	public void quit() {
+		boolean interrupted = false;
+		synchronized (lock) {
+			quitting = true;
+			lock.notifyAll();
+			while (stepping) {
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public void run() {
+		try {
+			while (true) {
+				final int owed;
+				synchronized (lock) {
+					while (!stepping && !quitting) {
+						lock.wait();
+					}
+					if (quitting) {
+						return;
+					}
+					owed = steps;
+				}
+
+				RuntimeException thrown = null;
+				try {
+					for (int i = 0; i < owed; i++) {
+						mWorld.step(timeStep, mVelocityIterations, mPositionIterations);
+					}
+				} catch (RuntimeException e) {
+					thrown = e;
+				}
+
+				synchronized (lock) {
+					steps = 0;
+					stepping = false;
+					failure = thrown;
+					lock.notifyAll();
+				}
+			}
+		} catch (InterruptedException e) {
+			//nobody interrupts it, it ends with quit
+		}
+	}
+}
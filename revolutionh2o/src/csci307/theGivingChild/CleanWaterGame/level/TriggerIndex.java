@@ -0,0 +1,155 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: The level's sensors, triggers and collectables, fired when the player overlaps them. The level
+*              records are sorted by x, so once a frame the sensors around the player's box are found with a
+*              binary search and only those are tested. A sensor fires once: its entity is despawned right
+*              away and a sensor without an entity is remembered as spent, so nothing keeps being tested
+*              after it did its part.
+*
+* History:
+*    10/18/26 original 1.0
+*    10/18/26 takes the FloatingOrigin in its constructor
+*/
+package csci307.theGivingChild.CleanWaterGame.level;
+
+import org.andengine.engine.handler.IUpdateHandler;
+import org.andengine.entity.IEntity;
+import org.andengine.entity.shape.IShape;
+
+public class TriggerIndex<T extends IEntity> implements IUpdateHandler {
+
+	public static final float DEFAULT_REACH = 60;
+
+	/**
+	 * Gets each sensor once, when the subject reaches it
+	 */
+	public interface ITriggerListener<T> {
+		/**
+		 * @param index : index of the record in the LevelData
+		 * @param entity : the live entity of the record, it is despawned after this returns. null for records
+		 * with LevelData.FLAG_NO_ENTITY
+		 */
+		public void onTrigger(int index, T entity);
+	}
+
+	private final LevelData level;
+	private final LevelStreamer<T> streamer;
+	private final IShape subject;
+	private final ITriggerListener<T> listener;
+	private final FloatingOrigin origin;
+	private float reach = DEFAULT_REACH;
+
+	private final int[] candidates = new int[64];
+
+	//the records without an entity that already fired, sorted. Only a level's few triggers end up here
+	private int spentCount = 0;
+	private int[] spent = new int[8];
+
+	/**
+	 * Register it after the streamer, so it only sees what is live
+	 * @param level : the records the streamer spawns, with their type flags
+	 * @param streamer : has the live entity of each record, the sensors are despawned through it once they fire
+	 * @param origin : turns the subject's x into level x
+	 * @param subject : the entity the sensors are tested against, the player
+	 */
+	public TriggerIndex(LevelData level, LevelStreamer<T> streamer, FloatingOrigin origin, IShape subject, ITriggerListener<T> listener) {
+		this.level = level;
+		this.streamer = streamer;
+		this.origin = origin;
+		this.subject = subject;
+		this.listener = listener;
+	}
+
+	/**
+	 * How far past the subject's box records are looked for. The entities can be drawn wider than their record,
+	 * so this has to be at least half the widest sensor entity.
+	 */
+	public void setReach(float reach) {
+		this.reach = reach;
+	}
+
+	@Override
+	public void onUpdate(float pSecondsElapsed) {
+		final float subjectX = origin.toLevelX(subject.getX());
+		final float halfWidth = subject.getWidth() * 0.5f;
+		final float halfHeight = subject.getHeight() * 0.5f;
+		forgetEvicted();
+
+		final int found = level.query(subjectX - halfWidth - reach, subjectX + halfWidth + reach, LevelData.FLAG_SENSOR, candidates);
+		for (int i = 0; i < found; i++) {
+			final int index = candidates[i];
+			if ((level.getFlags(index) & LevelData.FLAG_NO_ENTITY) != 0) {
+				//the record is the whole sensor
+				if (!isSpent(index)
+						&& Math.abs(level.getX(index) - subjectX) <= level.getWidth(index) * 0.5f + halfWidth
+						&& Math.abs(level.getY(index) - subject.getY()) <= level.getHeight(index) * 0.5f + halfHeight) {
+					spend(index);
+					listener.onTrigger(index, null);
+				}
+			} else {
+				//not live means it already fired, or was never spawned
+				final T entity = streamer.getSpawned(index);
+				if (entity instanceof IShape && subject.collidesWith((IShape) entity)) {
+					listener.onTrigger(index, entity);
+					streamer.despawn(index);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void reset() {
+	}
+
+	private boolean isSpent(int index) {
+		return search(index) >= 0;
+	}
+
+	private void spend(int index) {
+		if (spentCount == spent.length) {
+			final int[] more = new int[spentCount * 2];
+			System.arraycopy(spent, 0, more, 0, spentCount);
+			spent = more;
+		}
+		final int at = -search(index) - 1;
+		System.arraycopy(spent, at, spent, at + 1, spentCount - at);
+		spent[at] = index;
+		spentCount++;
+	}
+
+	/**
+	 * A generated level only keeps its latest records, the spent ones it dropped are dropped here too
+	 */
+	private void forgetEvicted() {
+		final int first = level.getFirstEntity();
+		int evicted = 0;
+		while (evicted < spentCount && spent[evicted] < first) {
+			evicted++;
+		}
+		if (evicted > 0) {
+			System.arraycopy(spent, evicted, spent, 0, spentCount - evicted);
+			spentCount -= evicted;
+		}
+	}
+
+	/**
+	 * @return where index is in spent, or -(insertion point) - 1
+	 */
+	private int search(int index) {
+		int low = 0;
+		int high = spentCount - 1;
+		while (low <= high) {
+			final int middle = (low + high) >>> 1;
+			if (spent[middle] < index) {
+				low = middle + 1;
+			} else if (spent[middle] > index) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -(low + 1);
+	}
+}
@@ -0,0 +1,169 @@
+/*
+ * Authors: agent
+ * Date: 10/18/26
+ * Version: 1.0
+ * Description: LevelManager keeps the level catalog and the player's progress through it in memory. Both are
+ * 				read once in the background when the game starts, so the menus never wait on the level files
+ * 				or the shared preferences. Progress is written through to the shared preferences.
+ */
+
+package csci307.theGivingChild.CleanWaterGame.manager;
+
+import java.io.IOException;
+
+import org.andengine.util.debug.Debug;
+
+import android.app.Activity;
+import android.content.SharedPreferences;
+import android.content.res.AssetManager;
+
+import csci307.theGivingChild.CleanWaterGame.CleanWaterGame;
+import csci307.theGivingChild.CleanWaterGame.level.LevelCatalog;
+import csci307.theGivingChild.CleanWaterGame.level.LevelCatalog.LevelInfo;
+import csci307.theGivingChild.CleanWaterGame.scene.GameEntityTypes;
+import csci307.theGivingChild.CleanWaterGame.scene.LevelSelectScene;
+
+public class LevelManager {
+	private static final LevelManager INSTANCE = new LevelManager();
+
+	private static final String KEY_DONE = "_done";
+	private static final String KEY_SCORE = "_score";
+	private static final String KEY_GOALS = "_goals";
+
+	private Thread loader;
+	private LevelCatalog catalog;
+
+	//progress, by catalog index
+	private boolean[] done;
+	private int[] bestScores;
+	private int[] bestGoals;
+
+	/**
+	 * Starts reading the catalog and the progress, call it once the ResourceManager is prepared
+	 */
+	public synchronized void loadInBackground(final AssetManager assets) {
+		if (loader != null) {
+			return;
+		}
+		loader = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				load(assets);
+			}
+		}, "LevelManager");
+		loader.start();
+	}
+
+	private void load(AssetManager assets) {
+		try {
+			catalog = LevelCatalog.build(assets, GameEntityTypes.COLLECTABLE_TYPE, GameEntityTypes.GOAL_TYPES);
+		} catch (IOException e) {
+			Debug.e("Could not read the level catalog", e);
+			throw new RuntimeException(e);
+		}
+
+		final SharedPreferences preferences = getPreferences();
+		final int count = catalog.getLevelCount();
+		done = new boolean[count];
+		bestScores = new int[count];
+		bestGoals = new int[count];
+		for (int i = 0; i < count; i++) {
+			final String levelID = catalog.getLevel(i).getLevelID();
+			done[i] = preferences.getBoolean(levelID + KEY_DONE, false);
+			bestScores[i] = preferences.getInt(levelID + KEY_SCORE, 0);
+			bestGoals[i] = preferences.getInt(levelID + KEY_GOALS, 0);
+		}
+	}
+
+	/**
+	 * Waits for the background load, it is normally done long before the first menu needs it
+	 */
+	private void waitForLoad() {
+		final Thread thread;
+		synchronized (this) {
+			thread = loader;
+		}
+		if (thread == null) {
+			throw new IllegalStateException("loadInBackground was not called");
+		}
+		boolean interrupted = false;
+		while (thread.isAlive()) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+		if (catalog == null) {
+			throw new IllegalStateException("The level catalog could not be read");
+		}
+	}
+
+	public LevelCatalog getCatalog() {
+		waitForLoad();
+		return catalog;
+	}
+
+	/**
+	 * @return the level, null if it is not in the catalog i.e. an endless run
+	 */
+	public LevelInfo getLevel(String levelID) {
+		return getCatalog().getLevel(levelID);
+	}
+
+	public boolean isDone(LevelInfo level) {
+		waitForLoad();
+		return done[level.getIndex()];
+	}
+
+	/**
+	 * @return true for the first level of an act and for levels whose previous level is done
+	 */
+	public boolean isUnlocked(LevelInfo level) {
+		return level.getPrevious() == null || isDone(level.getPrevious());
+	}
+
+	public int getBestScore(LevelInfo level) {
+		waitForLoad();
+		return bestScores[level.getIndex()];
+	}
+
+	/**
+	 * @return the most goal items collected in one win
+	 */
+	public int getBestGoals(LevelInfo level) {
+		waitForLoad();
+		return bestGoals[level.getIndex()];
+	}
+
+	/**
+	 * Marks the level done and keeps the score and goal items if they are the best yet
+	 */
+	public void onLevelWon(LevelInfo level, int score, int goals) {
+		waitForLoad();
+		final int i = level.getIndex();
+		final SharedPreferences.Editor editor = getPreferences().edit();
+		done[i] = true;
+		editor.putBoolean(level.getLevelID() + KEY_DONE, true);
+		if (score > bestScores[i]) {
+			bestScores[i] = score;
+			editor.putInt(level.getLevelID() + KEY_SCORE, score);
+		}
+		if (goals > bestGoals[i]) {
+			bestGoals[i] = goals;
+			editor.putInt(level.getLevelID() + KEY_GOALS, goals);
+		}
+		editor.commit();
+	}
+
+	private SharedPreferences getPreferences() {
+		return CleanWaterGame.getInstance().getSharedPreferences(LevelSelectScene.LEVEL_PREFERENCE, Activity.MODE_MULTI_PROCESS);
+	}
+
+	public static LevelManager getInstance() {
+		return INSTANCE;
+	}
+}
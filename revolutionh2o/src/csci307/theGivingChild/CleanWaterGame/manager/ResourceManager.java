@@ -5,6 +5,10 @@
  * Description: ResourceManager is responsible for loading the resources that an AndEngine Scene needs.
  * 				When a Scene is initiated, it will load the necessary resources required in the Scene.
  * 				When a resource is no longer needed by the Scene, it will be unloaded.
+ * History:
+ *  10/18/26 build level entities from a pooled entity type registry (agent)
+ *  10/18/26 add memory-mapped asset packs for additional acts (agent)
+ *  10/18/26 stop allocating in the player's per-step and per-action paths (agent)
  */
 
 package csci307.theGivingChild.CleanWaterGame.manager;
@@ -36,6 +40,7 @@ import android.graphics.Color;
 
 import csci307.theGivingChild.CleanWaterGame.CleanWaterGame;
 import csci307.theGivingChild.CleanWaterGame.GameLauncher;
+import csci307.theGivingChild.CleanWaterGame.level.AssetPack;
 
 public class ResourceManager {
 	private static final ResourceManager INSTANCE = new ResourceManager();
@@ -89,6 +94,9 @@ public class ResourceManager {
 	public Sound duckSound;
 	public Sound waterdropSound;
 	public Sound collectSound;
+	//the mute preference, see isMuted
+	private boolean muted;
+	private boolean mutedLoaded = false;
 
 	//------------------------------------------------
 	//CALLS TO LOAD ALL RESOURCES
@@ -171,23 +179,42 @@ public class ResourceManager {
 	 */
 	public void toggleMute()
 	{
-		boolean efx = CleanWaterGame.getInstance().getSharedPreferences(GameLauncher.PREFERENCE_KEY, Activity.MODE_MULTI_PROCESS).getBoolean(GameLauncher.PREFERENCE_KEY_MUTE, false);
-		CleanWaterGame.getInstance().getSharedPreferences(GameLauncher.PREFERENCE_KEY, Activity.MODE_MULTI_PROCESS).edit().putBoolean(GameLauncher.PREFERENCE_KEY_MUTE, (efx ? false : true)).commit();
+		muted = !isMuted();
+		CleanWaterGame.getInstance().getSharedPreferences(GameLauncher.PREFERENCE_KEY, Activity.MODE_MULTI_PROCESS).edit().putBoolean(GameLauncher.PREFERENCE_KEY_MUTE, muted).commit();
 	}
 
 	/**
-	 * Returns the value currently saved in the shared preferences listener regarding mute
+	 * Returns the value saved in the shared preferences regarding mute. It is read once and kept, the player
+	 * asks on every jump and dash
 	 * @return true if it is muted, false if not muted
 	 */
 	public boolean isMuted()
 	{
-		return CleanWaterGame.getInstance().getSharedPreferences(GameLauncher.PREFERENCE_KEY, Activity.MODE_MULTI_PROCESS).getBoolean(GameLauncher.PREFERENCE_KEY_MUTE, false);
+		if (!mutedLoaded) {
+			muted = CleanWaterGame.getInstance().getSharedPreferences(GameLauncher.PREFERENCE_KEY, Activity.MODE_MULTI_PROCESS).getBoolean(GameLauncher.PREFERENCE_KEY_MUTE, false);
+			mutedLoaded = true;
+		}
+		return muted;
+	}
+
+	/**
+	 * Reads the mute setting again on the next isMuted, the other activities can change it while the game is in the background
+	 */
+	public void reloadMute()
+	{
+		mutedLoaded = false;
 	}
 
 	/**
 	 * Loads the necessary graphics for the GameScene
 	 */
 	private void loadGameGraphics() {
+		if (gameTA != null) {
+			//already built, the regions are kept so the pooled level entities stay valid
+			gameTA.load();
+			groundTA.load();
+			return;
+		}
 		BitmapTextureAtlasTextureRegionFactory.setAssetBasePath("gfx/game/");		//Set the directory path for the all GameScene graphics relative to the 'assets' folder
 		
         gameTA = new BuildableBitmapTextureAtlas(activity.getTextureManager(), 2048, 1024, TextureOptions.BILINEAR);	//A map that holds textures/graphics for the game character, collectables, backgrounds, and pause button
@@ -313,6 +340,30 @@ public class ResourceManager {
 
 	}
 
+	//------------------------------------------------
+	//ACT PACKS
+	//------------------------------------------------
+
+	/**
+	 * Adds an image from an act's asset pack to an atlas, like createFromAsset does for a loose asset
+	 * @param name : the entry i.e. gfx/game/ground.png
+	 */
+	public ITextureRegion createFromPack(BuildableBitmapTextureAtlas atlas, AssetPack pack, String name) {
+		return BitmapTextureAtlasTextureRegionFactory.createFromSource(atlas, pack.getTextureSource(name));
+	}
+
+	public ITiledTextureRegion createTiledFromPack(BuildableBitmapTextureAtlas atlas, AssetPack pack, String name, int columns, int rows) {
+		return BitmapTextureAtlasTextureRegionFactory.createTiledFromSource(atlas, pack.getTextureSource(name), columns, rows);
+	}
+
+	/**
+	 * Loads a sound from an act's asset pack, it is read straight from the pack file so the pack has to be mapped
+	 * @param name : the entry i.e. sfx/jump.mp3
+	 */
+	public Sound createSoundFromPack(AssetPack pack, String name) throws IOException {
+		return SoundFactory.createSoundFromFileDescriptor(activity.getSoundManager(), pack.getFileDescriptor(), pack.getFileOffset(name), pack.getLength(name));
+	}
+
 	//------------------------------------------------
 	//UNLOADING RESOURCES
 	//------------------------------------------------
@@ -3,15 +3,23 @@
  * Date: 05/22/13
  * Version: 1.0
  * Description: SceneManager is used to easily handle switching between scenes. Scenes should be loaded and disposed of properly. 
+ * History:
+ *  10/18/26 build level entities from a pooled entity type registry (agent)
+ *  10/18/26 add a level catalog and an in-memory progress snapshot (agent)
+ *  10/18/26 add memory-mapped asset packs for additional acts (agent)
+ *  10/18/26 add a ring-buffer trace of game loop events (agent)
+ *  10/18/26 schedule delayed game events on one keyed timer wheel (agent)
  */
 
 package csci307.theGivingChild.CleanWaterGame.manager;
 
 import org.andengine.engine.Engine;
-import org.andengine.engine.handler.timer.ITimerCallback;
-import org.andengine.engine.handler.timer.TimerHandler;
 import org.andengine.ui.IGameInterface.OnCreateSceneCallback;
 
+import csci307.theGivingChild.CleanWaterGame.Scheduler;
+import csci307.theGivingChild.CleanWaterGame.Scheduler.ITask;
+import csci307.theGivingChild.CleanWaterGame.Trace;
+import csci307.theGivingChild.CleanWaterGame.level.LevelCatalog.LevelInfo;
 import csci307.theGivingChild.CleanWaterGame.scene.ActSelectScene;
 import csci307.theGivingChild.CleanWaterGame.scene.AnimationScene;
 import csci307.theGivingChild.CleanWaterGame.scene.AnimationScene.Animation;
@@ -40,7 +48,14 @@ public class SceneManager {
 	private static final SceneManager INSTANCE = new SceneManager();
 	private SceneType currentSceneType = SceneType.SCENE_SPLASH;
 	private BaseScene currentScene;
+	//the act the level select shows
+	private int currentAct = 1;
 	private Engine engine = ResourceManager.getInstance().engine;
+	//the scene swaps are scheduled under these keys, asking for the same swap again before it happened does nothing
+	private static final String SWAP_ANIMATION = "swapAnimation";
+	private static final String SWAP_GAME = "swapGame";
+	private static final String SWAP_ACT_SELECT = "swapActSelect";
+	private static final String SWAP_LEVEL_SELECT = "swapLevelSelect";
 	
 	public enum SceneType {
 		SCENE_SPLASH, 
@@ -60,6 +75,9 @@ public class SceneManager {
 		engine.setScene(scene);
 		currentScene = scene;
 		currentSceneType = scene.getSceneType();
+		if (Trace.INFO) {
+			Trace.event(Trace.SCENE, currentSceneType.ordinal());
+		}
 	}
 	
 	/**
@@ -88,6 +106,18 @@ public class SceneManager {
 		}
 	}
 	
+	/**
+	 * Creates the level select for an act, later level selects show the same act
+	 */
+	public void createLevelSelectScene(int act) {
+		currentAct = act;
+		createLevelSelectScene();
+	}
+
+	public int getCurrentAct() {
+		return currentAct;
+	}
+
 	public void createLevelSelectScene() {
 		ResourceManager.getInstance().loadMenuResources();
 		levelSelectScene = new LevelSelectScene();
@@ -121,34 +151,64 @@ public class SceneManager {
 			levelSelectScene.disposeScene();
 			levelSelectScene = null;
 		}
-		mEngine.registerUpdateHandler(new TimerHandler(0.01f, new ITimerCallback() {
+		Scheduler.getInstance().schedule(SWAP_ANIMATION, 0.01f, new ITask() {
 					
 				@Override
-				public void onTimePassed(TimerHandler pTimerHandler) {
-					mEngine.unregisterUpdateHandler(pTimerHandler);
+				public void onRun(Object key) {
 					setScene(animationScene);
 			}
-		}));
+		});
 	}
 	
-	public void loadGameScene(final Engine mEngine, final String level, final String level2) {
+	/**
+	 * Starts a level from the catalog, with its intro animation if it has one
+	 */
+	public void startLevel(final Engine mEngine, LevelInfo level) {
+		final Animation intro = Animation.getIntro(level.getLevelID());
+		if (intro != null) {
+			createAnimationScene(intro);
+			loadAnimationScene(mEngine);
+		} else {
+			loadGameScene(mEngine, level.getLevelID());
+		}
+	}
+
+	/**
+	 * Plays the animation at the end of an act, returns false if the act has none
+	 */
+	public boolean endAct(final Engine mEngine, int act) {
+		final Animation ending = Animation.getEnding(act);
+		if (ending == null) {
+			return false;
+		}
+		createAnimationScene(ending);
+		loadAnimationScene(mEngine);
+		return true;
+	}
+
+	public void loadGameScene(final Engine mEngine, final String level) {
 		setScene(loadingScene);
+		//restarting or moving on to the next level, the level objects go back to their pools
+		if (gameScene != null) {
+			gameScene.disposeScene();
+			ResourceManager.getInstance().unloadGameGraphics();
+			gameScene = null;
+		}
 		if (animationScene != null) {
 			animationScene.disposeScene();
 			ResourceManager.getInstance().unloadAnimationGraphics();
 			animationScene = null;
 		}
-		mEngine.registerUpdateHandler(new TimerHandler(.1f, new ITimerCallback() {
+		Scheduler.getInstance().schedule(SWAP_GAME, .1f, new ITask() {
 			
 			@Override
-			public void onTimePassed(TimerHandler pTimerHandler) {
-				mEngine.unregisterUpdateHandler(pTimerHandler);
+			public void onRun(Object key) {
 				ResourceManager.getInstance().loadGameResources();
-				gameScene = new GameScene(level, level2);
+				gameScene = new GameScene(level);
 				setScene(gameScene);
 				
 			}
-		}));
+		});
 	}
 	
 	public void loadActSelectScene(final Engine mEngine) {
@@ -157,15 +217,14 @@ public class SceneManager {
 			levelSelectScene.disposeScene();
 			levelSelectScene = null;
 		}
-		mEngine.registerUpdateHandler(new TimerHandler(0.01f, new ITimerCallback() {
+		Scheduler.getInstance().schedule(SWAP_ACT_SELECT, 0.01f, new ITask() {
 			
 			@Override
-			public void onTimePassed(TimerHandler pTimerHandler) {
-				mEngine.unregisterUpdateHandler(pTimerHandler);
+			public void onRun(Object key) {
 				ResourceManager.getInstance().loadMenuResources();
 				setScene(actSelectScene);
 			}
-		}));
+		});
 	}
 	
 	public void loadMenuScene(final Engine mEngine) {
@@ -181,14 +240,13 @@ public class SceneManager {
 			ResourceManager.getInstance().unloadAnimationGraphics();
 			animationScene = null;
 		}
-		mEngine.registerUpdateHandler(new TimerHandler(0.1f, new ITimerCallback() {			
+		Scheduler.getInstance().schedule(SWAP_LEVEL_SELECT, 0.1f, new ITask() {			
 			@Override
-			public void onTimePassed(TimerHandler pTimerHandler) {
-				mEngine.unregisterUpdateHandler(pTimerHandler);
+			public void onRun(Object key) {
 				ResourceManager.getInstance().loadMenuGraphics();
 				setScene(levelSelectScene);	
 			}
-		}));
+		});
 	}
 	
 	//-------------------------------------
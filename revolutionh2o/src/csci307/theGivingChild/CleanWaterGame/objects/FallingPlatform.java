@@ -6,13 +6,16 @@
 *
 * History:
 *    6/4/13 original 1.0
+*    10/18/26 stream level entities in and out around the camera (agent)
+*    10/18/26 build level entities from a pooled entity type registry (agent)
+*    10/18/26 turn Box2D contacts into queued gameplay events (agent)
+*    10/18/26 activate streamed bodies only near the camera (agent)
+*    10/18/26 retire falling platforms once they drop below the camera (agent)
+*    10/18/26 schedule delayed game events on one keyed timer wheel (agent)
+*    10/18/26 destroy bodies through a deferred, batched queue (agent)
 */
 package csci307.theGivingChild.CleanWaterGame.objects;
 
-import org.andengine.engine.Engine;
-import org.andengine.engine.camera.Camera;
-import org.andengine.engine.handler.timer.ITimerCallback;
-import org.andengine.engine.handler.timer.TimerHandler;
 import org.andengine.entity.sprite.Sprite;
 import org.andengine.extension.physics.box2d.PhysicsConnector;
 import org.andengine.extension.physics.box2d.PhysicsFactory;
@@ -23,50 +26,85 @@ import org.andengine.opengl.vbo.VertexBufferObjectManager;
 import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
 
+import csci307.theGivingChild.CleanWaterGame.Scheduler;
 import csci307.theGivingChild.CleanWaterGame.scene.GameScene;
 
 public class FallingPlatform extends Sprite {
+
+	/**
+	 * Hears about the platform starting to fall
+	 */
+	public interface IFallListener {
+		public void onFall(FallingPlatform platform);
+	}
 	
 	public Body body;
-	private Engine mEngine;
+	private PhysicsConnector connector;
 	private float fallingTime;
+	private IFallListener fallListener;
+
+	//scheduled with the platform as its key, so landing on it again while it is about to fall does not add another
+	private final Scheduler.ITask fallTask = new Scheduler.ITask() {
+		@Override
+		public void onRun(Object key) {
+			body.setType(BodyType.DynamicBody);
+			if (fallListener != null) {
+				fallListener.onFall(FallingPlatform.this);
+			}
+		}
+	};
 	
 	/**
-	 * ADD COMMENTS HERE
-	 * @param pX
-	 * @param pY
+	 * The platform has no body until createPhysics is called
+	 * @param region : the platform's texture
 	 * @param vbom
-	 * @param camera
-	 * @param physicsWorld
-	 * @param region
-	 * @param engine
-	 * @param time
+	 * @param time : seconds between the player landing and the platform falling
 	 */
-	public FallingPlatform(float pX, float pY, VertexBufferObjectManager vbom, Camera camera, PhysicsWorld physicsWorld, ITextureRegion region, Engine engine, float time) {
-		super(pX, pY, region, vbom);
-		createPhysics(camera, physicsWorld);
+	public FallingPlatform(ITextureRegion region, VertexBufferObjectManager vbom, float time) {
+		super(0, 0, region, vbom);
 		fallingTime = time;
-		mEngine = engine;
 	}
-	
-	private void createPhysics(final Camera camera, PhysicsWorld physicsWorld) {
+
+	/**
+	 * Creates the body at the platform's current position
+	 */
+	public void createPhysics(PhysicsWorld physicsWorld) {
 		body = PhysicsFactory.createBoxBody(physicsWorld, this, BodyType.StaticBody, GameScene.FALLING_FIX);
 		body.setUserData("fallingPlatform");
+		//the contact events find the platform through its fixture
+		body.getFixtureList().get(0).setUserData(this);
 		body.setFixedRotation(true);
 		
-		physicsWorld.registerPhysicsConnector(new PhysicsConnector(this, body, true, false));
+		connector = new PhysicsConnector(this, body, true, false);
+		physicsWorld.registerPhysicsConnector(connector);
+	}
+
+	/**
+	 * @param fallListener : told when the body becomes dynamic, null for nobody
+	 */
+	public void setFallListener(IFallListener fallListener) {
+		this.fallListener = fallListener;
+	}
+
+	/**
+	 * @return the connector that moves the sprite with the body, null before createPhysics
+	 */
+	public PhysicsConnector getConnector() {
+		return connector;
+	}
+
+	/**
+	 * Stops a pending fall from touching the body, used before the body is handed to the destruction queue
+	 * and when the platform is recycled
+	 */
+	public void release() {
+		Scheduler.getInstance().cancel(this);
 	}
 	
+	/**
+	 * Makes the platform fall after its falling time, unless it is already about to
+	 */
 	public void platformFall() {
-		mEngine.registerUpdateHandler(new TimerHandler(fallingTime, new ITimerCallback() {
-
-			@Override
-			public void onTimePassed(TimerHandler pTimerHandler) {
-				pTimerHandler.reset();
-				mEngine.unregisterUpdateHandler(pTimerHandler);
-				body.setType(BodyType.DynamicBody);
-				
-			}
-		}));
+		Scheduler.getInstance().schedule(this, fallingTime, fallTask);
 	}
 }
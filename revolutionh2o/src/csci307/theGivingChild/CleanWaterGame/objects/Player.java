@@ -6,6 +6,9 @@
 *
 * History:
 *    5/31/13 original
+*    10/18/26 make the player a bullet and step physics at 30Hz on low-end devices (agent)
+*    10/18/26 stop allocating in the player's per-step and per-action paths (agent)
+*    10/18/26 the sprint and duck times are kept in seconds, whatever the physics step rate (agent)
 */
 package csci307.theGivingChild.CleanWaterGame.objects;
 
@@ -20,7 +23,6 @@ import org.andengine.extension.physics.box2d.PhysicsWorld;
 import org.andengine.opengl.texture.region.ITiledTextureRegion;
 import org.andengine.opengl.vbo.VertexBufferObjectManager;
 
-import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
 
@@ -32,19 +34,22 @@ public class Player extends AnimatedSprite {
     private BodyPosition position;
     private static final float JUMP_VELOCITY = 10.0f;
     private static final float JUMP_TOLERANCE = 0.25f;
-    private static int TIME = 100;
     private static PhysicsWorld physicsWorld;
-    final long[] PLAYER_ANIMATE = new long[]{TIME, TIME, TIME, TIME, TIME, TIME};
+    //frame durations of the animations, shared and never changed
+    private static final long[] RUN_ANIMATION = new long[] { 100, 100, 100, 100, 100, 100 };
+    private static final long[] JUMP_ANIMATION = new long[] { 100, 10000 };
+    private static final long[] DASH_ANIMATION = new long[] { 50, 50, 50, 50, 50, 50 };
     // VARIABLES
 	public Body body;
 	private boolean canRun = false;
     private static final float SPRINT_SPEED = 9;
     private static final float NORMAL_SPEED = 5;
     private float runSpeed = NORMAL_SPEED;
-    private static final int MAX_SPRINT = 100;
-    private int sprintTime = MAX_SPRINT;
-    private static final int MAX_DUCK = 10;
-    private int duckTime = MAX_DUCK;
+    //seconds, the 100 and 10 steps they lasted at 60 steps a second
+    private static final float MAX_SPRINT = 100 / 60f;
+    private float sprintTime = MAX_SPRINT;
+    private static final float MAX_DUCK = 10 / 60f;
+    private float duckTime = MAX_DUCK;
     private boolean isSprinting = false;
     private boolean isJumping = false;
     private boolean isDucking = false;
@@ -53,7 +58,7 @@ public class Player extends AnimatedSprite {
 
     public Player(float pX, float pY, VertexBufferObjectManager vbom, Camera camera, PhysicsWorld physicsWorld, int hp, ITiledTextureRegion region) {
 		super(pX, pY, region, vbom);
-		createPhysics(camera, physicsWorld);
+		createPhysics(physicsWorld);
 		camera.setChaseEntity(this);
         initializeBooleanConditions();
         hitpoints = hp;
@@ -69,12 +74,15 @@ public class Player extends AnimatedSprite {
     }
 
 
-	private void createPhysics(final Camera camera, PhysicsWorld physicsWorld) {
+	private void createPhysics(PhysicsWorld physicsWorld) {
         Player.physicsWorld = physicsWorld;
 		//body = PhysicsFactory.createBoxBody(physicsWorld, 40.25f, 50, 80.5f, 100, BodyType.DynamicBody, PhysicsFactory.createFixtureDef(0, 0, 0));
         body = PhysicsFactory.createBoxBody(physicsWorld, this, BodyType.DynamicBody, GameScene.PLAYER_FIX);
 		body.setUserData("player");
 		body.setFixedRotation(true);
+		//swept against everything it can hit, the falling platforms are dynamic once they fall, so the player does
+		//not pass through the thin platforms when dashing or when the physics steps less often
+		body.setBullet(true);
         //newBody(50);
 
         physicsWorld.registerPhysicsConnector(new PhysicsConnector(this, body, true, false)
@@ -83,7 +91,6 @@ public class Player extends AnimatedSprite {
 			public void onUpdate(float pSecondsElapsed)
 			{
 				super.onUpdate(pSecondsElapsed);
-				camera.onUpdate(0.1f);
 			
 				if (getY() <= 0 || hitpoints <= 0) //If character is falling below ground and off screen
 				{
@@ -92,9 +99,9 @@ public class Player extends AnimatedSprite {
 				}
 
 				if (canRun) {
-					body.setLinearVelocity(new Vector2(runSpeed, body.getLinearVelocity().y));
+					body.setLinearVelocity(runSpeed, body.getLinearVelocity().y);
                     if (isSprinting) {
-                        sprintTime--;
+                        sprintTime -= pSecondsElapsed;
                         if (sprintTime <= 0 && !verticalMotion()) {
                             resetSprint();
                         }
@@ -133,19 +140,16 @@ public class Player extends AnimatedSprite {
 	}
 
     private void setToInitialSprite() {
-        final long[] PLAYER_ANIMATE = new long[] { 100, 100, 100, 100, 100, 100 };
-        animate(PLAYER_ANIMATE, 0, 5, true);
+        animate(RUN_ANIMATION, 0, 5, true);
     }
 
     // Need to change for new sprites
     private void setToJumpSprite() {
-        final long[] PLAYER_ANIMATE = new long[] { 100, 10000 };
-        animate(PLAYER_ANIMATE, 5, 6, true);
+        animate(JUMP_ANIMATION, 5, 6, true);
     }
 
     private void setToDashSprite() {
-        final long[] PLAYER_ANIMATE = new long[] { 50, 50, 50, 50, 50, 50 };
-        animate(PLAYER_ANIMATE, 0, 5, true);
+        animate(DASH_ANIMATION, 0, 5, true);
     }
 
     public void setRunning() {
@@ -187,7 +191,8 @@ public class Player extends AnimatedSprite {
 
     // TODO: Refactor for clarity
     private boolean verticalMotion() {
-        return Math.abs(body.getLinearVelocity().y) != 0 && (body.getLinearVelocity().y > -JUMP_VELOCITY + JUMP_TOLERANCE || body.getLinearVelocity().y < -JUMP_VELOCITY );
+        final float velocityY = body.getLinearVelocity().y;
+        return velocityY != 0 && (velocityY > -JUMP_VELOCITY + JUMP_TOLERANCE || velocityY < -JUMP_VELOCITY);
     }
 
     // Not fully correct
@@ -6,6 +6,7 @@
 *
 * History:
 *    5/31/13 original
+*    10/18/26 add memory-mapped asset packs for additional acts (agent)
 */
 package csci307.theGivingChild.CleanWaterGame.scene;
 
@@ -23,8 +24,10 @@ import org.andengine.entity.scene.menu.item.decorator.ColorMenuItemDecorator;
 import org.andengine.entity.scene.menu.item.decorator.ScaleMenuItemDecorator;
 import org.andengine.entity.sprite.Sprite;
 import org.andengine.entity.text.Text;
+import org.andengine.opengl.texture.region.ITextureRegion;
 import org.andengine.util.adt.color.Color;
 
+import csci307.theGivingChild.CleanWaterGame.manager.LevelManager;
 import csci307.theGivingChild.CleanWaterGame.manager.SceneManager;
 import csci307.theGivingChild.CleanWaterGame.manager.SceneManager.SceneType;
 
@@ -33,9 +36,10 @@ public class ActSelectScene extends BaseScene implements IOnMenuItemClickListene
 	private MenuScene menuScene;
 	private MenuScene messageScene;
 	
-	private final int MENU_ACT_I = 0;
 	private final int MENU_LOCKED = 1;
 	private final int MENU_RESUME = 2;
+	//the act buttons' id is MENU_ACT + their act
+	private final int MENU_ACT = 10;
 	
 	@Override
 	public void createScene() {
@@ -69,10 +73,6 @@ public class ActSelectScene extends BaseScene implements IOnMenuItemClickListene
 	@Override
 	public boolean onMenuItemClicked(MenuScene pMenuScene, IMenuItem pMenuItem,	float pMenuItemLocalX, float pMenuItemLocalY) {
 		switch (pMenuItem.getID()) {
-			case MENU_ACT_I:
-				SceneManager.getInstance().createLevelSelectScene();
-				SceneManager.getInstance().loadMenuScene(engine);
-				return true;
 			case MENU_LOCKED:
 				clearChildScene();
 				setChildScene(createMessageScene());
@@ -82,34 +82,38 @@ public class ActSelectScene extends BaseScene implements IOnMenuItemClickListene
 				createMenuScene();
 				return true;
 			default:
+				if (pMenuItem.getID() > MENU_ACT) {
+					SceneManager.getInstance().createLevelSelectScene(pMenuItem.getID() - MENU_ACT);
+					SceneManager.getInstance().loadMenuScene(engine);
+					return true;
+				}
 				return false;
 		}
 	}
 	
 	/*
-	 * Shows the act buttons. 
+	 * Shows the act buttons. An act is open once the catalog has its levels, acts after the first come in
+	 * their asset packs.
 	 */
 	private MenuScene createMenuScene() {
 		menuScene = new MenuScene(camera);
 		menuScene.setPosition(0, 0);
 		
-		final IMenuItem actOneItem = new ScaleMenuItemDecorator(new SpriteMenuItem(MENU_ACT_I, resourcesManager.act_one_TR, vbom), 1.2f, 1);
-		final IMenuItem actTwoItem = new ScaleMenuItemDecorator(new SpriteMenuItem(MENU_LOCKED, resourcesManager.act_two_TR, vbom), 1.2f, 1);
-		final IMenuItem actThreeItem = new ScaleMenuItemDecorator(new SpriteMenuItem(MENU_LOCKED, resourcesManager.act_three_TR, vbom), 1.2f, 1);
-		final IMenuItem actFourItem = new ScaleMenuItemDecorator(new SpriteMenuItem(MENU_LOCKED, resourcesManager.act_four_TR, vbom), 1.2f, 1);
-		
-		menuScene.addMenuItem(actOneItem);
-		menuScene.addMenuItem(actTwoItem);
-		menuScene.addMenuItem(actThreeItem);
-		menuScene.addMenuItem(actFourItem);
+		final ITextureRegion[] actRegions = { resourcesManager.act_one_TR, resourcesManager.act_two_TR, resourcesManager.act_three_TR, resourcesManager.act_four_TR };
+		final IMenuItem[] actItems = new IMenuItem[actRegions.length];
+		for (int i = 0; i < actRegions.length; i++) {
+			final int act = i + 1;
+			final int id = (LevelManager.getInstance().getCatalog().getFirstLevel(act) != null) ? MENU_ACT + act : MENU_LOCKED;
+			actItems[i] = new ScaleMenuItemDecorator(new SpriteMenuItem(id, actRegions[i], vbom), 1.2f, 1);
+			menuScene.addMenuItem(actItems[i]);
+		}
 		
 		menuScene.buildAnimations();
 		menuScene.setBackgroundEnabled(false);
 		
-		actOneItem.setPosition(150, 200);
-        actTwoItem.setPosition(300, 200);
-        actThreeItem.setPosition(450, 200);
-        actFourItem.setPosition(600,200);
+		for (int i = 0; i < actItems.length; i++) {
+			actItems[i].setPosition(150 + 150 * i, 200);
+		}
 
 		menuScene.setOnMenuItemClickListener(this);
 		setChildScene(menuScene);
@@ -6,6 +6,7 @@
 *
 * History:
 *    6/10/13 original 1.0
+*    10/18/26 add a level catalog and an in-memory progress snapshot (agent)
 */
 package csci307.theGivingChild.CleanWaterGame.scene;
 
@@ -41,10 +42,46 @@ public class AnimationScene extends BaseScene implements IOnMenuItemClickListene
 	private int currentScene;
 	
 	public enum Animation {
-		SCENE_ONE,
-		SCENE_TWO,
-		SCENE_THREE,
-		SCENE_FOUR
+		SCENE_ONE("act1scene1", 0),
+		SCENE_TWO("act1scene2", 0),
+		SCENE_THREE("act1scene3", 0),
+		SCENE_FOUR(null, 1);
+
+		private final String introOf;
+		private final int endOf;
+
+		/**
+		 * @param introOf : the level it is played before, null if none
+		 * @param endOf : the act it is played after, 0 if none
+		 */
+		private Animation(String introOf, int endOf) {
+			this.introOf = introOf;
+			this.endOf = endOf;
+		}
+
+		/**
+		 * @return the animation played before the level, null if it has none
+		 */
+		public static Animation getIntro(String levelID) {
+			for (Animation animation : values()) {
+				if (levelID.equals(animation.introOf)) {
+					return animation;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * @return the animation played once the act is beaten, null if it has none
+		 */
+		public static Animation getEnding(int act) {
+			for (Animation animation : values()) {
+				if (animation.endOf == act) {
+					return animation;
+				}
+			}
+			return null;
+		}
 	}
 
 	public AnimationScene(Animation animation) {
@@ -174,16 +211,16 @@ public class AnimationScene extends BaseScene implements IOnMenuItemClickListene
 			case MENU_SKIP:
 				switch (currentAnimation) {
 					case SCENE_ONE:
-						SceneManager.getInstance().loadGameScene(engine, "act1scene1", "act1scene2");
+						SceneManager.getInstance().loadGameScene(engine, "act1scene1");
 						CleanWaterGame.getInstance().pauseMenuMusic();
 						CleanWaterGame.getInstance().getSharedPreferences(GameLauncher.PREFERENCE_KEY_INGAME, ResourceManager.getInstance().activity.MODE_MULTI_PROCESS).edit().putBoolean(GameLauncher.PREFERENCE_KEY_INGAME_MUTE, true).commit();						
 						break;
 					case SCENE_TWO:
-						SceneManager.getInstance().loadGameScene(engine, "act1scene2", "act1scene3");
+						SceneManager.getInstance().loadGameScene(engine, "act1scene2");
 						CleanWaterGame.getInstance().pauseMenuMusic();
 						CleanWaterGame.getInstance().getSharedPreferences(GameLauncher.PREFERENCE_KEY_INGAME, ResourceManager.getInstance().activity.MODE_MULTI_PROCESS).edit().putBoolean(GameLauncher.PREFERENCE_KEY_INGAME_MUTE, true).commit();
 					case SCENE_THREE:
-						SceneManager.getInstance().loadGameScene(engine, "act1scene3", "act1scene4");
+						SceneManager.getInstance().loadGameScene(engine, "act1scene3");
 						CleanWaterGame.getInstance().pauseMenuMusic();
 						CleanWaterGame.getInstance().getSharedPreferences(GameLauncher.PREFERENCE_KEY_INGAME, ResourceManager.getInstance().activity.MODE_MULTI_PROCESS).edit().putBoolean(GameLauncher.PREFERENCE_KEY_INGAME_MUTE, true).commit();
 						break;
@@ -251,7 +288,7 @@ public class AnimationScene extends BaseScene implements IOnMenuItemClickListene
 							currentScene++;
 							attachChild(scene_one.get(currentScene));
 						} else {
-							SceneManager.getInstance().loadGameScene(engine, "act1scene1", "act1scene2");
+							SceneManager.getInstance().loadGameScene(engine, "act1scene1");
 							CleanWaterGame.getInstance().pauseMenuMusic();
 							CleanWaterGame.getInstance().getSharedPreferences(GameLauncher.PREFERENCE_KEY_INGAME, ResourceManager.getInstance().activity.MODE_MULTI_PROCESS).edit().putBoolean(GameLauncher.PREFERENCE_KEY_INGAME_MUTE, true).commit();
 						}
@@ -264,7 +301,7 @@ public class AnimationScene extends BaseScene implements IOnMenuItemClickListene
 							attachChild(scene_two.get(currentScene));
 							
 						} else {
-							SceneManager.getInstance().loadGameScene(engine, "act1scene2", "act1scene3");
+							SceneManager.getInstance().loadGameScene(engine, "act1scene2");
 							CleanWaterGame.getInstance().pauseMenuMusic();
 							CleanWaterGame.getInstance().getSharedPreferences(GameLauncher.PREFERENCE_KEY_INGAME, ResourceManager.getInstance().activity.MODE_MULTI_PROCESS).edit().putBoolean(GameLauncher.PREFERENCE_KEY_INGAME_MUTE, true).commit();
 						}
@@ -276,7 +313,7 @@ public class AnimationScene extends BaseScene implements IOnMenuItemClickListene
 							currentScene++;
 							attachChild(scene_three.get(currentScene));							
 						} else {
-							SceneManager.getInstance().loadGameScene(engine, "act1scene3", "act1scene4");
+							SceneManager.getInstance().loadGameScene(engine, "act1scene3");
 							CleanWaterGame.getInstance().pauseMenuMusic();
 							CleanWaterGame.getInstance().getSharedPreferences(GameLauncher.PREFERENCE_KEY_INGAME, ResourceManager.getInstance().activity.MODE_MULTI_PROCESS).edit().putBoolean(GameLauncher.PREFERENCE_KEY_INGAME_MUTE, true).commit();
 						}
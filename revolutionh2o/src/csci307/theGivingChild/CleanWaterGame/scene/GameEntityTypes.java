@@ -0,0 +1,308 @@
+/**
+* Authors: agent
+* Date: 10/18/26
+* Version: 1.0
+* Description: The entity types of the game's levels. They are registered once in an EntityFactory that
+*              outlives the GameScenes, so restarting or moving on to the next level reuses the entities
+*              of the last one. The entities report to whichever GameScene is bound at the time.
+*
+* History:
+*    10/18/26 original 1.0
+*    10/18/26 the triggers are registered as TriggerTypes, without a pool
+*/
+package csci307.theGivingChild.CleanWaterGame.scene;
+
+import org.andengine.entity.IEntity;
+import org.andengine.entity.modifier.LoopEntityModifier;
+import org.andengine.entity.modifier.ScaleModifier;
+import org.andengine.entity.sprite.AnimatedSprite;
+import org.andengine.entity.sprite.Sprite;
+import org.andengine.extension.physics.box2d.PhysicsFactory;
+import org.andengine.opengl.texture.region.ITextureRegion;
+
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
+
+import csci307.theGivingChild.CleanWaterGame.level.ContactEventQueue;
+import csci307.theGivingChild.CleanWaterGame.level.EntityFactory;
+import csci307.theGivingChild.CleanWaterGame.level.EntityFactory.EntityType;
+import csci307.theGivingChild.CleanWaterGame.level.EntityFactory.TriggerType;
+import csci307.theGivingChild.CleanWaterGame.level.LevelData;
+import csci307.theGivingChild.CleanWaterGame.manager.ResourceManager;
+import csci307.theGivingChild.CleanWaterGame.objects.FallingPlatform;
+import csci307.theGivingChild.CleanWaterGame.scene.GameScene.PausedType;
+
+public class GameEntityTypes {
+
+	private static final GameEntityTypes INSTANCE = new GameEntityTypes();
+
+	/**
+	 * The collectables every level has
+	 */
+	public static final String COLLECTABLE_TYPE = GameScene.TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE;
+	/**
+	 * The collectables that can be a level's goal item
+	 */
+	public static final String[] GOAL_TYPES = {
+		GameScene.TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE_ACT1_SCENE2_GOALS,
+		GameScene.TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE_ACT1_SCENE3_GOALS,
+		GameScene.TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE_ACT1_SCENE4_GOALS,
+		GameScene.TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE_ACT1_SCENE5_GOALS
+	};
+
+	private final EntityFactory factory = new EntityFactory();
+	private final ResourceManager resourcesManager = ResourceManager.getInstance();
+	private GameScene scene;
+	private boolean registered = false;
+	//whether the collectables pulse and the alligators are animated, see FrameGovernor
+	private boolean animated = true;
+
+	private GameEntityTypes() {
+	}
+
+	public static GameEntityTypes getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * New entity types can be registered here, they are picked up by the next level that is loaded
+	 */
+	public EntityFactory getFactory() {
+		return factory;
+	}
+
+	/**
+	 * Points the entities at the scene being played, the game's own types are registered the first time
+	 * since they need the game graphics to be loaded
+	 */
+	void bind(GameScene scene) {
+		this.scene = scene;
+		if (!registered) {
+			registerGameTypes();
+			registered = true;
+		}
+	}
+
+	/**
+	 * @return the texture of a collectable type, for the HUD, null if the type is not a collectable
+	 */
+	ITextureRegion getCollectableRegion(String typeName) {
+		final short typeId = factory.getTypeId(typeName);
+		if (typeId != EntityFactory.UNKNOWN_TYPE && factory.getType(typeId) instanceof CollectableType) {
+			return ((CollectableType) factory.getType(typeId)).region;
+		}
+		return null;
+	}
+
+	/**
+	 * Starts or stops the collectables' pulse and the alligators' animation for the entities seated from now on,
+	 * the ones already live are passed to applyAnimated
+	 */
+	void setAnimated(boolean animated) {
+		this.animated = animated;
+	}
+
+	/**
+	 * @param levelObject : an entity obtained from the factory, the ones of other types are left alone
+	 */
+	void applyAnimated(IEntity levelObject) {
+		final EntityType<?> type = factory.getType((short) levelObject.getTag());
+		if (type instanceof AlligatorType || type instanceof CollectableType) {
+			levelObject.setIgnoreUpdate(!animated);
+		}
+	}
+
+	private void registerGameTypes() {
+		factory.register(GameScene.TAG_ENTITY_ATTRIBUTE_TYPE_VALUE_HILL, new TileType(resourcesManager.hill_TR));
+		factory.register(GameScene.TAG_ENTITY_ATTRIBUTE_TYPE_VALUE_GROUND, new TileType(resourcesManager.ground_TR));
+		factory.register(GameScene.TAG_ENTITY_ATTRIBUTE_TYPE_FLOATINGPLATFORM, new TileType(resourcesManager.floating_platform_ground_TR));
+		factory.register(GameScene.TAG_ENTITY_ATTRIBUTE_TYPE_FALLINGPLATFORM, new FallingPlatformType(resourcesManager.falling_platform_TR, 0.4f, true));
+		factory.register(GameScene.TAG_ENTITY_ATTRIBUTE_TYPE_FALLINGPLATFORM_2, new FallingPlatformType(resourcesManager.falling_platform_2_TR, 0.25f, false));
+		factory.register(GameScene.TAG_ENTITY_ATTRIBUTE_TYPE_WIN_TRIGGER, new WinTriggerType());
+		factory.register(GameScene.TAG_ENTITY_ATTRIBUTE_TYPE_JUMP_TUTORIAL_TRIGGER, new TutorialTriggerType("jump_tutorial_done", PausedType.PAUSED_JUMPTUTORIAL));
+		factory.register(GameScene.TAG_ENTITY_ATTRIBUTE_TYPE_DASH_TUTORIAL_TRIGGER, new TutorialTriggerType("dash_tutorial_done", PausedType.PAUSED_DASHTUTORIAL));
+		factory.register(GameScene.TAG_ENTITY_ATTRIBUTE_TYPE_ALLIGATOR, new AlligatorType());
+		factory.register(GameScene.TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE, new CollectableType(resourcesManager.collectable_TR, 10, false));
+		factory.register(GameScene.TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE_ACT1_SCENE2_GOALS, new CollectableType(resourcesManager.twine_TR, 40, true));
+		factory.register(GameScene.TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE_ACT1_SCENE3_GOALS, new CollectableType(resourcesManager.stone_TR, 40, true));
+		factory.register(GameScene.TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE_ACT1_SCENE4_GOALS, new CollectableType(resourcesManager.mud_TR, 40, true));
+		factory.register(GameScene.TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE_ACT1_SCENE5_GOALS, new CollectableType(resourcesManager.wood_TR, 40, true));
+	}
+
+	/**
+	 * Ground, hills and floating platforms. Their bodies are the merged colliders, the GameScene handles
+	 * the player running into their side.
+	 * The entities do not test the player themselves. The solid ones hear about it from the GameScene's
+	 * ContactEventQueue, the sensors from its TriggerIndex.
+	 */
+	private class TileType extends EntityType<Sprite> {
+		private final ITextureRegion region;
+
+		public TileType(ITextureRegion region) {
+			super(LevelData.FLAG_SOLID);
+			this.region = region;
+		}
+
+		@Override
+		protected Sprite onAllocatePoolItem() {
+			return new Sprite(0, 0, region, resourcesManager.vbom);
+		}
+
+		@Override
+		protected void onSeat(Sprite tile, int x, int y, int width, int height) {
+			tile.setPosition(x, y);
+		}
+	}
+
+	//the platforms outlive the scenes, so they tell whichever one is bound
+	private final FallingPlatform.IFallListener fallListener = new FallingPlatform.IFallListener() {
+		@Override
+		public void onFall(FallingPlatform platform) {
+			scene.onPlatformFall(platform);
+		}
+	};
+
+	private class FallingPlatformType extends EntityType<FallingPlatform> {
+		private final ITextureRegion region;
+		private final float fallingTime;
+		private final boolean sideCollision;
+
+		public FallingPlatformType(ITextureRegion region, float fallingTime, boolean sideCollision) {
+			super((byte) (LevelData.FLAG_SOLID | LevelData.FLAG_DYNAMIC));
+			this.region = region;
+			this.fallingTime = fallingTime;
+			this.sideCollision = sideCollision;
+		}
+
+		@Override
+		protected FallingPlatform onAllocatePoolItem() {
+			final FallingPlatform platform = new FallingPlatform(region, resourcesManager.vbom, fallingTime);
+			platform.setFallListener(fallListener);
+			return platform;
+		}
+
+		@Override
+		protected void onPlayerContact(FallingPlatform platform, int event) {
+			if (event == ContactEventQueue.LANDED) {
+				platform.platformFall();
+			} else if (event == ContactEventQueue.SIDE_HIT && sideCollision) {
+				scene.onSideHit();
+			}
+		}
+
+		@Override
+		protected void onSeat(FallingPlatform platform, int x, int y, int width, int height) {
+			platform.setPosition(x, y);
+			platform.createPhysics(scene.getPhysicsWorld());
+			scene.getBodyActivator().track(platform.body, platform.getWidth() * 0.5f, platform.getConnector());
+		}
+
+		@Override
+		protected void onHandleRecycleItem(FallingPlatform platform) {
+			platform.release();
+		}
+	}
+
+	private class WinTriggerType extends TriggerType {
+		@Override
+		protected void onTrigger() {
+			scene.onWinTrigger();
+		}
+	}
+
+	/**
+	 * Pauses the game for a tutorial the first time the player reaches it
+	 */
+	private class TutorialTriggerType extends TriggerType {
+		private final String preference;
+		private final PausedType pausedType;
+
+		public TutorialTriggerType(String preference, PausedType pausedType) {
+			this.preference = preference;
+			this.pausedType = pausedType;
+		}
+
+		@Override
+		protected void onTrigger() {
+			if (!scene.isTutorialDone(preference)) {
+				scene.onTutorialTrigger(preference, pausedType);
+			}
+		}
+	}
+
+	private class AlligatorType extends EntityType<AnimatedSprite> {
+		public AlligatorType() {
+			super(LevelData.FLAG_SOLID);
+		}
+
+		@Override
+		protected AnimatedSprite onAllocatePoolItem() {
+			final AnimatedSprite alligator = new AnimatedSprite(0, 0, resourcesManager.alligator_TR, resourcesManager.vbom);
+			alligator.animate(100);
+			return alligator;
+		}
+
+		@Override
+		protected void onSeat(AnimatedSprite alligator, int x, int y, int width, int height) {
+			alligator.setPosition(x, y);
+			alligator.setIgnoreUpdate(!animated);
+			//the body is kept as the user data so the scene destroys it when the alligator is despawned
+			final Body body = PhysicsFactory.createBoxBody(scene.getPhysicsWorld(), alligator, BodyType.StaticBody, GameScene.GROUND_FIX);
+			body.setUserData("alligator");
+			body.getFixtureList().get(0).setUserData(alligator);
+			alligator.setUserData(body);
+			scene.getBodyActivator().track(body, alligator.getWidth() * 0.5f, null);
+		}
+
+		@Override
+		protected void onPlayerContact(AnimatedSprite alligator, int event) {
+			if (event == ContactEventQueue.HAZARD) {
+				scene.onAlligatorCollision();
+			}
+		}
+
+		@Override
+		protected void onHandleRecycleItem(AnimatedSprite alligator) {
+			alligator.setUserData(null);
+		}
+	}
+
+	private class CollectableType extends EntityType<Sprite> {
+		private final ITextureRegion region;
+		private final int points;
+		private final boolean goal;
+
+		/**
+		 * @param region : the collectable's texture
+		 * @param points : added to the score when collected
+		 * @param goal : whether it counts towards the level's collectable goal
+		 */
+		public CollectableType(ITextureRegion region, int points, boolean goal) {
+			super(LevelData.FLAG_SENSOR);
+			this.region = region;
+			this.points = points;
+			this.goal = goal;
+		}
+
+		@Override
+		protected Sprite onAllocatePoolItem() {
+			final Sprite sprite = new Sprite(0, 0, region, resourcesManager.vbom);
+			sprite.registerEntityModifier(new LoopEntityModifier(new ScaleModifier(1, 1, 1.3f)));
+			return sprite;
+		}
+
+		@Override
+		protected void onSeat(Sprite sprite, int x, int y, int width, int height) {
+			sprite.setPosition(x, y);
+			sprite.setIgnoreUpdate(!animated);
+		}
+
+		/**
+		 * The sprite is despawned and goes back to the pool once collected
+		 */
+		@Override
+		protected void onTrigger(Sprite sprite) {
+			scene.onCollect(points, goal);
+		}
+	}
+}
@@ -6,9 +6,30 @@
  *
  * History:
  *  05/22/13 original 1.0
+ *  10/18/26 load levels from a precompiled binary format instead of SAX parsing (agent)
+ *  10/18/26 stream level entities in and out around the camera (agent)
+ *  10/18/26 merge contiguous static tiles into shared colliders (agent)
+ *  10/18/26 build level entities from a pooled entity type registry (agent)
+ *  10/18/26 add a seeded endless run generated ahead of the camera (agent)
+ *  10/18/26 rebase the world toward the origin as the camera advances (agent)
+ *  10/18/26 add flags and range lookups to the columnar level model (agent)
+ *  10/18/26 add a level catalog and an in-memory progress snapshot (agent)
+ *  10/18/26 add memory-mapped asset packs for additional acts (agent)
+ *  10/18/26 replace per-entity player polling with a collision stage (agent)
+ *  10/18/26 turn Box2D contacts into queued gameplay events (agent)
+ *  10/18/26 fire triggers and collectables once from a trigger index (agent)
+ *  10/18/26 add a ring-buffer trace of game loop events (agent)
+ *  10/18/26 make the player a bullet and step physics at 30Hz on low-end devices (agent)
+ *  10/18/26 activate streamed bodies only near the camera (agent)
+ *  10/18/26 retire falling platforms once they drop below the camera (agent)
+ *  10/18/26 destroy bodies through a deferred, batched queue (agent)
+ *  10/18/26 step physics on its own thread while the frame is drawn (agent)
+ *  10/18/26 draw sprites between fixed physics steps (agent)
+ *  10/18/26 scale effects and solver iterations to the frame budget (agent)
+ *  10/18/26 build the overlays once and show them on paused state changes (agent)
+ *  10/18/26 draw the static level tiles from one sprite batch (agent)
  * TODO --------
  * -HUD
- * -collision (contact listener)
  * -game over stuff
  */
 
@@ -20,11 +41,9 @@ import java.util.Iterator;
 
 import javax.microedition.khronos.opengles.GL10;
 
-import org.andengine.audio.sound.Sound;
 import org.andengine.engine.camera.hud.HUD;
+import org.andengine.engine.handler.IUpdateHandler;
 import org.andengine.entity.IEntity;
-import org.andengine.entity.modifier.LoopEntityModifier;
-import org.andengine.entity.modifier.ScaleModifier;
 import org.andengine.entity.primitive.Rectangle;
 import org.andengine.entity.scene.IOnSceneTouchListener;
 import org.andengine.entity.scene.Scene;
@@ -35,45 +54,82 @@ import org.andengine.entity.scene.menu.MenuScene.IOnMenuItemClickListener;
 import org.andengine.entity.scene.menu.item.IMenuItem;
 import org.andengine.entity.scene.menu.item.TextMenuItem;
 import org.andengine.entity.scene.menu.item.decorator.ColorMenuItemDecorator;
-import org.andengine.entity.sprite.AnimatedSprite;
 import org.andengine.entity.sprite.Sprite;
+import org.andengine.entity.sprite.batch.SpriteGroup;
 import org.andengine.entity.text.Text;
 import org.andengine.entity.text.TextOptions;
 import org.andengine.extension.physics.box2d.FixedStepPhysicsWorld;
 import org.andengine.extension.physics.box2d.PhysicsFactory;
 import org.andengine.extension.physics.box2d.PhysicsWorld;
+import org.andengine.extension.physics.box2d.util.constants.PhysicsConstants;
 import org.andengine.input.touch.TouchEvent;
 import org.andengine.opengl.texture.region.ITextureRegion;
-import org.andengine.util.SAXUtils;
 import org.andengine.util.adt.align.HorizontalAlign;
 import org.andengine.util.adt.color.Color;
-import org.andengine.util.debug.Debug;
-import org.andengine.util.level.EntityLoader;
-import org.andengine.util.level.constants.LevelConstants;
-import org.andengine.util.level.simple.SimpleLevelEntityLoaderData;
-import org.andengine.util.level.simple.SimpleLevelLoader;
-import org.xml.sax.Attributes;
+
+import android.app.ActivityManager;
+import android.content.Context;
 
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
 import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
+import com.badlogic.gdx.physics.box2d.Fixture;
 import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
 
 import csci307.theGivingChild.CleanWaterGame.CleanWaterGame;
+import csci307.theGivingChild.CleanWaterGame.FrameGovernor;
+import csci307.theGivingChild.CleanWaterGame.FrameGovernor.IQualityListener;
+import csci307.theGivingChild.CleanWaterGame.GameEngine;
 import csci307.theGivingChild.CleanWaterGame.GameLauncher;
+import csci307.theGivingChild.CleanWaterGame.PipelinedEngine;
+import csci307.theGivingChild.CleanWaterGame.Trace;
+import csci307.theGivingChild.CleanWaterGame.level.BodyActivator;
+import csci307.theGivingChild.CleanWaterGame.level.ColliderMerger;
+import csci307.theGivingChild.CleanWaterGame.level.ContactEventQueue;
+import csci307.theGivingChild.CleanWaterGame.level.ContactEventQueue.IContactSubscriber;
+import csci307.theGivingChild.CleanWaterGame.level.DestructionQueue;
+import csci307.theGivingChild.CleanWaterGame.level.DestructionQueue.IDestroyListener;
+import csci307.theGivingChild.CleanWaterGame.level.EndlessLevelGenerator;
+import csci307.theGivingChild.CleanWaterGame.level.EntityFactory;
+import csci307.theGivingChild.CleanWaterGame.level.FloatingOrigin;
+import csci307.theGivingChild.CleanWaterGame.level.FloatingOrigin.IShiftListener;
+import csci307.theGivingChild.CleanWaterGame.level.InterpolatedPhysicsWorld;
+import csci307.theGivingChild.CleanWaterGame.level.LevelCatalog.LevelInfo;
+import csci307.theGivingChild.CleanWaterGame.level.LevelData;
+import csci307.theGivingChild.CleanWaterGame.level.LevelLoader;
+import csci307.theGivingChild.CleanWaterGame.level.LevelStreamer;
+import csci307.theGivingChild.CleanWaterGame.level.MergedColliders;
+import csci307.theGivingChild.CleanWaterGame.level.PipelinedPhysicsWorld;
+import csci307.theGivingChild.CleanWaterGame.level.LevelStreamer.ISpawner;
+import csci307.theGivingChild.CleanWaterGame.level.TriggerIndex;
+import csci307.theGivingChild.CleanWaterGame.level.TriggerIndex.ITriggerListener;
+import csci307.theGivingChild.CleanWaterGame.manager.LevelManager;
 import csci307.theGivingChild.CleanWaterGame.manager.ResourceManager;
 import csci307.theGivingChild.CleanWaterGame.manager.SceneManager;
 import csci307.theGivingChild.CleanWaterGame.manager.SceneManager.SceneType;
 import csci307.theGivingChild.CleanWaterGame.objects.FallingPlatform;
 import csci307.theGivingChild.CleanWaterGame.objects.Player;
-import csci307.theGivingChild.CleanWaterGame.scene.AnimationScene.Animation;
 
 public class GameScene extends BaseScene implements IOnSceneTouchListener, IOnMenuItemClickListener {
 
 	public static final String TUTORIAL_PREFERENCE = "csci370.theGivingchild.cleanWaterGame.JUMP_TUTORIAL";
     private static final double TAP_THRESHOLD = 60;
     private static final double SWIPE_THRESHOLD = 80;
-    private static final double COLLISION_THRESHOLD = 1.0;
+    //how far the trigger index looks past the player, half the widest collectable (45px) at the top of its pulse
+    private static final float TRIGGER_REACH = 30;
+    //physics steps a second, devices with at most LOW_END_MEMORY_CLASS MB of heap get the lower rate
+    private static final int STEPS_PER_SECOND = 60;
+    private static final int LOW_END_STEPS_PER_SECOND = 30;
+    private static final int LOW_END_MEMORY_CLASS = 32;
+    //steps an interpolated world catches up after a long frame, time beyond that is dropped
+    private static final int MAXIMUM_STEPS_PER_UPDATE = 4;
+    //solver iterations, fewer at the FrameGovernor's lowest quality
+    private static final int VELOCITY_ITERATIONS = 3;
+    private static final int POSITION_ITERATIONS = 2;
+    private static final int LOW_VELOCITY_ITERATIONS = 2;
+    private static final int LOW_POSITION_ITERATIONS = 1;
     private HUD gameHUD;
     private Text scoreText;
     private Text collectableText;
@@ -87,32 +143,35 @@ public class GameScene extends BaseScene implements IOnSceneTouchListener, IOnMe
     private float lastY;
 
     private final String currentLevel;
-    private String nextLevel;
+    //null for an endless run
+    private final LevelInfo levelInfo;
     private boolean start = false;
 
-	private static final String TAG_ENTITY = "entity";
-	private static final String TAG_ENTITY_ATTRIBUTE_X = "x";
-	private static final String TAG_ENTITY_ATTRIBUTE_Y = "y";
-	private static final String TAG_ENTITY_ATTRIBUTE_WIDTH = "width";
-	private static final String TAG_ENTITY_ATTRIBUTE_HEIGHT = "height";
-	private static final String TAG_ENTITY_ATTRIBUTE_TYPE = "type";
-
-	private static final Object TAG_ENTITY_ATTRIBUTE_TYPE_VALUE_HILL = "hill";
-	private static final Object TAG_ENTITY_ATTRIBUTE_TYPE_VALUE_GROUND = "ground";
-	private static final Object TAG_ENTITY_ATTRIBUTE_TYPE_FLOATINGPLATFORM = "floatingPlatform";
-	private static final Object TAG_ENTITY_ATTRIBUTE_TYPE_FALLINGPLATFORM = "fallingPlatform";
-	private static final Object TAG_ENTITY_ATTRIBUTE_TYPE_FALLINGPLATFORM_2 = "fallingPlatform2";
-	private static final Object TAG_ENTITY_ATTRIBUTE_TYPE_VALUE_PLAYER = "player";
-	private static final Object TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE = "collectable";
-	private static final Object TAG_ENTITY_ATTRIBUTE_TYPE_WIN_TRIGGER = "winTrigger";
-	private static final Object TAG_ENTITY_ATTRIBUTE_TYPE_JUMP_TUTORIAL_TRIGGER = "jumpTutorialTrigger";
-	private static final Object TAG_ENTITY_ATTRIBUTE_TYPE_DASH_TUTORIAL_TRIGGER = "dashTutorialTrigger";
-    private static final Object TAG_ENTITY_ATTRIBUTE_TYPE_ALLIGATOR = "alligator";
-
-	private static final Object TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE_ACT1_SCENE2_GOALS = "twine";
-	private static final Object TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE_ACT1_SCENE3_GOALS = "stone";
-	private static final Object TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE_ACT1_SCENE4_GOALS = "mud";
-	private static final Object TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE_ACT1_SCENE5_GOALS = "wood";
+	static final String TAG_ENTITY_ATTRIBUTE_TYPE_VALUE_HILL = "hill";
+	static final String TAG_ENTITY_ATTRIBUTE_TYPE_VALUE_GROUND = "ground";
+	static final String TAG_ENTITY_ATTRIBUTE_TYPE_FLOATINGPLATFORM = "floatingPlatform";
+	static final String TAG_ENTITY_ATTRIBUTE_TYPE_FALLINGPLATFORM = "fallingPlatform";
+	static final String TAG_ENTITY_ATTRIBUTE_TYPE_FALLINGPLATFORM_2 = "fallingPlatform2";
+	static final String TAG_ENTITY_ATTRIBUTE_TYPE_VALUE_PLAYER = "player";
+	static final String TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE = "collectable";
+	static final String TAG_ENTITY_ATTRIBUTE_TYPE_WIN_TRIGGER = "winTrigger";
+	static final String TAG_ENTITY_ATTRIBUTE_TYPE_JUMP_TUTORIAL_TRIGGER = "jumpTutorialTrigger";
+	static final String TAG_ENTITY_ATTRIBUTE_TYPE_DASH_TUTORIAL_TRIGGER = "dashTutorialTrigger";
+    static final String TAG_ENTITY_ATTRIBUTE_TYPE_ALLIGATOR = "alligator";
+
+	static final String TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE_ACT1_SCENE2_GOALS = "twine";
+	static final String TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE_ACT1_SCENE3_GOALS = "stone";
+	static final String TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE_ACT1_SCENE4_GOALS = "mud";
+	static final String TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE_ACT1_SCENE5_GOALS = "wood";
+
+	//Static tiles whose bodies are merged into shared colliders, and the user data of those colliders
+	private static final String[] MERGED_TILE_TYPES = { TAG_ENTITY_ATTRIBUTE_TYPE_VALUE_HILL, TAG_ENTITY_ATTRIBUTE_TYPE_VALUE_GROUND, TAG_ENTITY_ATTRIBUTE_TYPE_FLOATINGPLATFORM };
+	private static final String[] MERGED_TILE_COLLIDERS = { "ground", "ground", "test" };
+	//Widest a merged collider may get, about a screen so the colliders still stream with the camera
+	private static final int MAX_COLLIDER_WIDTH = 800;
+	//tiles the batch draws at once, the LevelAnalyzer's tiles budget keeps the levels within it. Any more are
+	//attached to the scene and drawn on their own
+	private static final int TILE_BATCH_CAPACITY = 150;
 
 	//Categories of objects
 	private static final short CATEGORYBIT_GROUND = 1;
@@ -124,7 +183,7 @@ public class GameScene extends BaseScene implements IOnSceneTouchListener, IOnMe
 	private static final short MASKBITS_FALLING = CATEGORYBIT_PLAYER;
 	private static final short MASKBITS_PLAYER = CATEGORYBIT_FALLING + CATEGORYBIT_GROUND;
 
-	private static final FixtureDef GROUND_FIX = PhysicsFactory.createFixtureDef(0, 0.01f, 0.1f, false, CATEGORYBIT_GROUND, MASKBITS_GROUND, (short)0);
+	static final FixtureDef GROUND_FIX = PhysicsFactory.createFixtureDef(0, 0.01f, 0.1f, false, CATEGORYBIT_GROUND, MASKBITS_GROUND, (short)0);
 	public static final FixtureDef FALLING_FIX = PhysicsFactory.createFixtureDef(1, 0, 0.1f, false, CATEGORYBIT_FALLING, MASKBITS_FALLING, (short)0);
 	public static final FixtureDef PLAYER_FIX = PhysicsFactory.createFixtureDef(0, 0, 0, false, CATEGORYBIT_PLAYER, MASKBITS_PLAYER, (short)0);
 
@@ -142,11 +201,55 @@ public class GameScene extends BaseScene implements IOnSceneTouchListener, IOnMe
 	private Player player;
 	private static Text tapToStartText;
     private boolean actionPerformed = false;
+    //the touches can be handled off the update thread, the actions that change the player's body are queued to it
+    //so they run between the physics steps. One queued before the level was torn down is dropped
+    private boolean disposed = false;
+    private final Runnable jumpAction = new Runnable() {
+    	@Override
+    	public void run() {
+    		if (!disposed) {
+    			player.jump();
+    		}
+    	}
+    };
+    private final Runnable dashAction = new Runnable() {
+    	@Override
+    	public void run() {
+    		if (!disposed) {
+    			player.dash();
+    		}
+    	}
+    };
     public static boolean paused = false;
     private boolean isDone = false;
     private ArrayList<IEntity> levelObjects = new ArrayList<IEntity>();
+    private LevelData level;
+    private LevelStreamer<IEntity> levelStreamer;
+    private MergedColliders colliders;
+    private LevelStreamer<Body> colliderStreamer;
+    private EntityFactory entityFactory;
+    private FloatingOrigin origin;
+    private TriggerIndex<IEntity> triggerIndex;
+    private BodyActivator bodyActivator;
+    private DestructionQueue destructionQueue;
+    //the ground, hill and floating platform tiles, drawn in one call from the atlas they share
+    private SpriteGroup tileBatch;
+    private AutoParallaxBackground background;
+    private ParallaxEntity cloudLayer;
+    private boolean cloudsShown = true;
+    //the platforms that are falling, they are retired once they drop below the camera
+    private final ArrayList<FallingPlatform> fallingPlatforms = new ArrayList<FallingPlatform>();
+    private ContactEventQueue contactEvents;
 
     public static PausedType pausedType;
+    //the state the overlay on screen is for, pausedType can be set from anywhere and is acted on when it differs
+    private PausedType shownPausedType = PausedType.PAUSED_OFF;
+    //the overlays, built the first time they are shown and reused
+    private MenuScene pauseMenu;
+    private MenuScene gameOverMenu;
+    private MenuScene gameWinMenu;
+    private MenuScene jumpTutorialMenu;
+    private MenuScene dashTutorialMenu;
 
     public enum PausedType {
     	PAUSED_OFF,
@@ -157,17 +260,18 @@ public class GameScene extends BaseScene implements IOnSceneTouchListener, IOnMe
     	PAUSED_DASHTUTORIAL
     }
 
-    public GameScene(String level, String level2) {
+    public GameScene(String level) {
     	this.resourcesManager = ResourceManager.getInstance();
     	this.engine = resourcesManager.engine;
         this.activity = resourcesManager.activity;
         this.vbom = resourcesManager.vbom;
         this.camera = resourcesManager.camera;
         currentLevel = level;
-        nextLevel = level2;
+        levelInfo = LevelManager.getInstance().getLevel(level);
         pausedType = PausedType.PAUSED_OFF;
         createScene();
-        createHUD(level);
+        bindEntityTypes();
+        createHUD();
 		loadLevel(level);
 	}
 
@@ -177,6 +281,14 @@ public class GameScene extends BaseScene implements IOnSceneTouchListener, IOnMe
         createBackground();
         
         createPhysics();
+        //weak phones keep the quality the governor settled on in the last level
+        applyQuality(FrameGovernor.getInstance().getQuality());
+        FrameGovernor.getInstance().setListener(new IQualityListener() {
+        	@Override
+        	public void onQualityChanged(int quality) {
+        		applyQuality(quality);
+        	}
+        });
         tapToStartText = new Text(400, 400, resourcesManager.font, "TAP TO START", vbom);
         attachChild(tapToStartText);
         setOnSceneTouchListener(this);
@@ -213,10 +325,24 @@ public class GameScene extends BaseScene implements IOnSceneTouchListener, IOnMe
      * -removes all sprites
      * -removes all physics bodies
      * -detaches the gamescene itself. 
+     * The back key calls it on the UI thread, the teardown is done on the update thread so it never runs
+     * during the scene's update or a physics step
      */
     @Override
     public void disposeScene()
     {
+        engine.runOnUpdateThread(new Runnable() {
+        	@Override
+        	public void run() {
+        		tearDown();
+        	}
+        });
+    }
+
+    private void tearDown()
+    {
+        disposed = true;
+        FrameGovernor.getInstance().setListener(null);
         camera.setHUD(null);
         camera.setCenter(400, 240);
         camera.setBounds(0, 0, 800, 480);
@@ -224,32 +350,31 @@ public class GameScene extends BaseScene implements IOnSceneTouchListener, IOnMe
         	CleanWaterGame.getInstance().pauseGameMusic();
         }
 
-        Iterator<Body> allBodies = this.physicsWorld.getBodies();
-        while (allBodies.hasNext()) {
-        	try {
-        		final Body currentBody = allBodies.next();
-        		physicsWorld.destroyBody(currentBody);
-        	} catch (Exception e) {
-        		Debug.e(e);
-        	}
+        //the physics thread is idle while the frame updates, quit also waits for a step that is still running
+        if (physicsWorld instanceof PipelinedPhysicsWorld) {
+        	((PipelinedEngine) engine).setPhysicsWorld(null);
+        	((PipelinedPhysicsWorld) physicsWorld).quit();
         }
 
-        if (levelObjects.size() > 0) {
-        	engine.runOnUpdateThread(new Runnable() {
-        		@Override
-        		public void run() {
-        			for (IEntity object : levelObjects) {
-        				try {
-        					detachChild(object);
-        				} catch (Exception e) {
-        					Debug.e(e);
-        				}
-                	}
-        		}
-        	});
+        //the removals asked for this frame own their bodies, they are done first so no body is destroyed twice
+        destructionQueue.flush();
 
+        //then the level objects go back to their pools for the next level and every body left is destroyed. It is
+        //queued rather than done while iterating the world, and all done before the world and the batch go
+        for (IEntity object : levelObjects) {
+        	destructionQueue.destroy(object, null, null);
+        }
+        final Iterator<Body> allBodies = physicsWorld.getBodies();
+        while (allBodies.hasNext()) {
+        	destructionQueue.destroy(allBodies.next());
         }
+        destructionQueue.flush();
+        if (tileBatch != null) {
+        	tileBatch.dispose();
+        }
+
         levelObjects.clear();
+        fallingPlatforms.clear();
         this.clearChildScene();
         this.reset();
         this.detachSelf();
@@ -258,18 +383,59 @@ public class GameScene extends BaseScene implements IOnSceneTouchListener, IOnMe
     }
 
     private void createBackground() {
-    	AutoParallaxBackground autoParallaxBackground = new AutoParallaxBackground(0, 0, 0, 5);
-		autoParallaxBackground.attachParallaxEntity(new ParallaxEntity(0.0f, new Sprite(.5f*camera.getWidth() , .5f*camera.getHeight(), resourcesManager.scene_background_TR, vbom)));
+    	background = new AutoParallaxBackground(0, 0, 0, 5);
+		background.attachParallaxEntity(new ParallaxEntity(0.0f, new Sprite(.5f*camera.getWidth() , .5f*camera.getHeight(), resourcesManager.scene_background_TR, vbom)));
 		Sprite cloudSprite = new Sprite(.5f*camera.getWidth(), .5f*camera.getHeight()+60f, resourcesManager.scene_foreground_TR, vbom);
-		autoParallaxBackground.attachParallaxEntity(new ParallaxEntity(-5f, cloudSprite ));
-		setBackground(autoParallaxBackground);
+		cloudLayer = new ParallaxEntity(-5f, cloudSprite);
+		background.attachParallaxEntity(cloudLayer);
+		setBackground(background);
+    }
+
+    /**
+     * Turns the effects off or on for a FrameGovernor quality tier
+     */
+    private void applyQuality(int quality) {
+    	final GameEntityTypes entityTypes = GameEntityTypes.getInstance();
+    	entityTypes.setAnimated(quality < FrameGovernor.QUALITY_STILL);
+    	for (IEntity object : levelObjects) {
+    		if (object != player) {
+    			entityTypes.applyAnimated(object);
+    		}
+    	}
+
+    	//the clouds are drawn over the whole screen
+    	final boolean clouds = quality < FrameGovernor.QUALITY_NO_CLOUDS;
+    	if (clouds != cloudsShown) {
+    		if (clouds) {
+    			background.attachParallaxEntity(cloudLayer);
+    		} else {
+    			background.detachParallaxEntity(cloudLayer);
+    		}
+    		cloudsShown = clouds;
+    	}
+
+    	if (quality < FrameGovernor.QUALITY_LOW) {
+    		physicsWorld.setVelocityIterations(VELOCITY_ITERATIONS);
+    		physicsWorld.setPositionIterations(POSITION_ITERATIONS);
+    	} else {
+    		physicsWorld.setVelocityIterations(LOW_VELOCITY_ITERATIONS);
+    		physicsWorld.setPositionIterations(LOW_POSITION_ITERATIONS);
+    	}
+    }
+
+    /**
+     * Points the game's entity types at this scene, the level and the HUD need them
+     */
+    private void bindEntityTypes() {
+		final GameEntityTypes entityTypes = GameEntityTypes.getInstance();
+		entityTypes.bind(this);
+		entityFactory = entityTypes.getFactory();
     }
 
     /**
      * Game heads up display that moves with the camera. Shows score, health, collectable score, and pause button
-     * @param level
      */
-    private void createHUD(String level) {
+    private void createHUD() {
     	gameHUD = new HUD();
     	heart1 = new Sprite(660, 390, resourcesManager.hitpoints_TR, vbom);
     	heart2 = new Sprite(700, 390, resourcesManager.hitpoints_TR, vbom);
@@ -292,18 +458,7 @@ public class GameScene extends BaseScene implements IOnSceneTouchListener, IOnMe
     	if (hasCollectables()) {
     		collectableText = new Text(400, 440, resourcesManager.font, "0/5", new TextOptions(HorizontalAlign.LEFT), vbom);
     		gameHUD.attachChild(collectableText);
-    	}
-    	if (level.equals("act1scene2")) {
-    		final Sprite sprite = new Sprite(340, 440 , resourcesManager.twine_TR, vbom);
-    		gameHUD.attachChild(sprite);
-    	} else if (level.equals("act1scene3")) {
-    		final Sprite sprite = new Sprite(340, 440, resourcesManager.stone_TR, vbom);
-    		gameHUD.attachChild(sprite);
-    	} else if (level.equals("act1scene4")) {
-    		final Sprite sprite = new Sprite(340, 440, resourcesManager.mud_TR, vbom);
-    		gameHUD.attachChild(sprite);
-    	} else if (level.equals("act1scene5")) {
-    		final Sprite sprite = new Sprite(340, 440, resourcesManager.wood_TR, vbom);
+    		final Sprite sprite = new Sprite(340, 440, GameEntityTypes.getInstance().getCollectableRegion(levelInfo.getGoalType()), vbom);
     		gameHUD.attachChild(sprite);
     	}
 
@@ -372,289 +527,407 @@ public class GameScene extends BaseScene implements IOnSceneTouchListener, IOnMe
     }
 
     private void createPhysics() {
-    	physicsWorld = new FixedStepPhysicsWorld(60, 1, new Vector2(0, -17), false, 3, 2);
+    	final int stepsPerSecond = getStepsPerSecond(activity);
+    	if (engine instanceof PipelinedEngine) {
+    		//the activity only makes it where the world steps once per fixed update, the steps run on their own
+    		//thread while the frame is drawn
+    		final PipelinedPhysicsWorld pipelinedWorld = new PipelinedPhysicsWorld(stepsPerSecond, 1, new Vector2(0, -17), false, VELOCITY_ITERATIONS, POSITION_ITERATIONS);
+    		((PipelinedEngine) engine).setPhysicsWorld(pipelinedWorld);
+    		physicsWorld = pipelinedWorld;
+    	} else if (stepsPerSecond < STEPS_PER_SECOND || (engine instanceof GameEngine && !((GameEngine) engine).isFixedStep())) {
+    		//the steps do not line up with the frames, the sprites are drawn between them
+    		physicsWorld = new InterpolatedPhysicsWorld(stepsPerSecond, MAXIMUM_STEPS_PER_UPDATE, new Vector2(0, -17), false, VELOCITY_ITERATIONS, POSITION_ITERATIONS);
+    	} else {
+    		physicsWorld = new FixedStepPhysicsWorld(stepsPerSecond, 1, new Vector2(0, -17), false, VELOCITY_ITERATIONS, POSITION_ITERATIONS);
+    	}
     	registerUpdateHandler(physicsWorld);
+
+    	//what the player's body touches, handed out right after the step
+    	contactEvents = new ContactEventQueue(32);
+    	contactEvents.addHazard(TAG_ENTITY_ATTRIBUTE_TYPE_ALLIGATOR);
+    	contactEvents.subscribe(new IContactSubscriber() {
+    		@Override
+    		public void onContactEvent(int event, Fixture other) {
+    			if (Trace.DEBUG) {
+    				Trace.event(Trace.CONTACT, event, (int) player.getX(), (int) player.getY());
+    			}
+    			if (other.getUserData() instanceof IEntity) {
+    				entityFactory.onPlayerContact((IEntity) other.getUserData(), event);
+    			} else if (event == ContactEventQueue.SIDE_HIT) {
+    				//the merged colliders of the ground, hills and floating platforms have no entity
+    				onSideHit();
+    			}
+    		}
+    	});
+    	physicsWorld.setContactListener(contactEvents);
+    	registerUpdateHandler(contactEvents);
+
+    	//bodies and level objects are only ever taken out through this, between the steps
+    	destructionQueue = new DestructionQueue(physicsWorld, new IDestroyListener() {
+    		@Override
+    		public void onDestroyed(IEntity levelObject) {
+    			if (levelObject != player) {
+    				entityFactory.recycle(levelObject);
+    			}
+    		}
+    	});
     }
 
     /**
-     * Andengine's method for loading levels through xml's
+     * @return how often the physics world steps, halved on low end devices. The player's body is a bullet, so it is
+     * swept against the platforms and does not pass through the thin ones at either rate
+     */
+    public static int getStepsPerSecond(Context context) {
+    	final ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+    	return (activityManager.getMemoryClass() <= LOW_END_MEMORY_CLASS) ? LOW_END_STEPS_PER_SECOND : STEPS_PER_SECOND;
+    }
+
+    /**
+     * Loads the compiled level (see LevelCompiler.pl), or starts the generator for an endless run.
+     * The level's entities are then spawned by the LevelStreamer as the camera reaches them
      * @param levelID
      */
     private void loadLevel(String levelID) {
-		final SimpleLevelLoader levelLoader = new SimpleLevelLoader(vbom);
+		//registered right after the physics world, so the world moves back before anything spawns from the level
+		origin = new FloatingOrigin(camera, new IShiftListener() {
+			@Override
+			public void onOriginShift(int shift) {
+				if (Trace.INFO) {
+					Trace.event(Trace.SHIFT, shift, origin.getX(), 0);
+				}
+				shiftWorld(shift);
+			}
+		});
+		registerUpdateHandler(origin);
+
+		if (EndlessLevelGenerator.isEndless(levelID)) {
+			final EndlessLevelGenerator generator = new EndlessLevelGenerator(camera, origin, EndlessLevelGenerator.getSeed(levelID));
+			level = generator.getLevel();
+			colliders = generator.getColliders();
+			//registered before the streamers so the level is always generated past what they spawn
+			generator.onUpdate(0);
+			registerUpdateHandler(generator);
+		} else {
+			try {
+				if (levelInfo != null && levelInfo.getPack() != null) {
+					level = LevelLoader.loadFromPack(levelInfo.getPack(), levelID);
+				} else {
+					level = LevelLoader.loadFromAsset(activity.getAssets(), levelID);
+				}
+			} catch (IOException e) {
+				throw new RuntimeException("Could not load level " + levelID, e);
+			}
+			colliders = mergeColliders();
+		}
 
-		levelLoader.registerEntityLoader(new EntityLoader<SimpleLevelEntityLoaderData>(LevelConstants.TAG_LEVEL) {
+		//an endless run has no right bound, the camera's bounds are floats so the largest one can be moved by the origin
+		camera.setBounds(0, 0, level.isUnbounded() ? Float.MAX_VALUE : level.getWidth(), level.getHeight());
+		camera.setBoundsEnabled(true);
 
-			@Override
-			public IEntity onLoadEntity(String pEntityName, IEntity pParent, Attributes pAttributes, SimpleLevelEntityLoaderData pEntityLoaderData)	throws IOException {
-				final int level_width = SAXUtils.getIntAttributeOrThrow(pAttributes, LevelConstants.TAG_LEVEL_ATTRIBUTE_WIDTH);
-				final int level_height = SAXUtils.getIntAttributeOrThrow(pAttributes, LevelConstants.TAG_LEVEL_ATTRIBUTE_HEIGHT);
+		//the streamed bodies are only active near the camera, it is registered once they are
+		bodyActivator = new BodyActivator(camera, physicsWorld);
 
-				camera.setBounds(0, 0, level_width, level_height);
-				camera.setBoundsEnabled(true);
+		loadColliders();
 
-				return GameScene.this;
-			}
-		});
+		final short[] entityTypeIds = entityFactory.resolve(level);
+		level = level.withTypeFlags(entityFactory.resolveFlags(level));
 
-		levelLoader.registerEntityLoader(new EntityLoader<SimpleLevelEntityLoaderData>(TAG_ENTITY) {
+		//attached before anything is spawned so the tiles are drawn under the rest of the level
+		final boolean[] batchedTypes = new boolean[level.getTypeCount()];
+		for (int type = 0; type < batchedTypes.length; type++) {
+			for (String tileType : MERGED_TILE_TYPES) {
+				batchedTypes[type] |= tileType.equals(level.getTypeName(type));
+			}
+		}
+		tileBatch = new SpriteGroup(0, 0, resourcesManager.ground_TR.getTexture(), TILE_BATCH_CAPACITY, vbom);
+		attachChild(tileBatch);
 
+		levelStreamer = new LevelStreamer<IEntity>(level, camera, origin, new ISpawner<IEntity>() {
 			@Override
-			public IEntity onLoadEntity(String pEntityName, IEntity pParent, Attributes pAttributes, SimpleLevelEntityLoaderData pEntityLoaderData)	throws IOException {
-				final int x = SAXUtils.getIntAttributeOrThrow(pAttributes, TAG_ENTITY_ATTRIBUTE_X);
-				final int y = SAXUtils.getIntAttributeOrThrow(pAttributes, TAG_ENTITY_ATTRIBUTE_Y);
-				final int width = SAXUtils.getIntAttributeOrThrow(pAttributes, TAG_ENTITY_ATTRIBUTE_WIDTH);
-				final int height = SAXUtils.getIntAttributeOrThrow(pAttributes, TAG_ENTITY_ATTRIBUTE_HEIGHT);
-				final String type = SAXUtils.getAttributeOrThrow(pAttributes, TAG_ENTITY_ATTRIBUTE_TYPE);
-
-				final IEntity levelObject;
-
-				if (type.equals(TAG_ENTITY_ATTRIBUTE_TYPE_VALUE_HILL)) {
-					levelObject = new Sprite(x, y, resourcesManager.hill_TR, vbom) {
-						@Override
-						protected void onManagedUpdate(float pSecondsElapsed) {
-							super.onManagedUpdate(pSecondsElapsed);
-							//side collision
-							if(detectSideCollision(player, this)) {
-								player.bounceBack();
-								player.decrementHP();
-								displayHealth(player.getHP());
-							}
-						}
-					};
-					PhysicsFactory.createBoxBody(physicsWorld, levelObject, BodyType.StaticBody, GROUND_FIX).setUserData("ground");
-				}
-				else if (type.equals(TAG_ENTITY_ATTRIBUTE_TYPE_VALUE_GROUND)) {
-					levelObject = new Sprite(x, y, resourcesManager.ground_TR, vbom) {
-						@Override
-						protected void onManagedUpdate(float pSecondsElapsed) {
-							super.onManagedUpdate(pSecondsElapsed);
-							//side collision
-							if(detectSideCollision(player, this)) {
-								player.bounceBack();
-								player.decrementHP();
-								displayHealth(player.getHP());
-							}
-						}
-					};
-					PhysicsFactory.createBoxBody(physicsWorld, levelObject, BodyType.StaticBody, GROUND_FIX).setUserData("ground");
-				}
-				else if (type.equals(TAG_ENTITY_ATTRIBUTE_TYPE_FLOATINGPLATFORM)) {
-					levelObject = new Sprite(x, y, resourcesManager.floating_platform_ground_TR, vbom) {
-						@Override
-						protected void onManagedUpdate(float pSecondsElapsed) {
-							super.onManagedUpdate(pSecondsElapsed);
-
-							if(detectSideCollision(player, this)) {
-								player.bounceBack();
-								player.decrementHP();
-								displayHealth(player.getHP());
-							}
-						}
-					};
-					PhysicsFactory.createBoxBody(physicsWorld, levelObject, BodyType.StaticBody, GROUND_FIX).setUserData("test");
-				}
-				else if (type.equals(TAG_ENTITY_ATTRIBUTE_TYPE_FALLINGPLATFORM_2)) {
-					levelObject = new FallingPlatform(x, y, vbom, camera, physicsWorld, resourcesManager.falling_platform_2_TR, engine, 0.25f) {
-						@Override
-						protected void onManagedUpdate(float pSecondsElapsed) {
-							if (detectTopCollision(player, this)) {
-								platformFall();
-							}
-						}
-					};
-				}
-				else if (type.equals(TAG_ENTITY_ATTRIBUTE_TYPE_FALLINGPLATFORM)) {
-
-					levelObject = new FallingPlatform(x, y, vbom, camera, physicsWorld, resourcesManager.falling_platform_TR, engine, 0.4f) {
-						@Override
-						protected void onManagedUpdate(float pSecondsElapsed) {
-							super.onManagedUpdate(pSecondsElapsed);
-
-							if (detectTopCollision(player, this)) {
-								platformFall();
-							}
-							if (detectSideCollision(player, this)) {
-								player.bounceBack();
-								player.decrementHP();
-								displayHealth(player.getHP());
-							}
-						}
-					};
-				}
-				else if (type.equals(TAG_ENTITY_ATTRIBUTE_TYPE_VALUE_PLAYER)) {
-					player = new Player(x, y, vbom, camera, physicsWorld, 4, resourcesManager.player_TR) {
-
-						@Override
-						public void onDie() {
-                            isDone = true;
-                            displayHealth(player.getHP());
-							pausedType = PausedType.PAUSED_GAMEOVER;
-							camera.setChaseEntity(null);
-						}
-					};
-					levelObject = player;
-				}
-				else if (type.equals(TAG_ENTITY_ATTRIBUTE_TYPE_WIN_TRIGGER)) {
-					levelObject = new Rectangle(x, y, width, height, vbom) {
-						@Override
-						protected void onManagedUpdate(float pSecondsElapsed) {
-							if (player.collidesWith(this)) {
-								this.setIgnoreUpdate(true);
-								
-								if (collectableCount < COLLECTABLE_COUNT_GOAL && !currentLevel.equals("act1scene1")) {
-									setChildScene(gameOverScene());
-									pausedType = PausedType.PAUSED_GAMEOVER;
-								} else {
-	                                CleanWaterGame.getInstance().getSharedPreferences(LevelSelectScene.LEVEL_PREFERENCE, ResourceManager.getInstance().activity.MODE_MULTI_PROCESS).edit().putBoolean(currentLevel+"_done", true).commit();
-	                                Integer highScore = CleanWaterGame.getInstance().getSharedPreferences(LevelSelectScene.LEVEL_PREFERENCE, ResourceManager.getInstance().activity.MODE_MULTI_PROCESS).getInt(currentLevel+"_score", 0);
-	                                if (score > highScore)
-	                                    CleanWaterGame.getInstance().getSharedPreferences(LevelSelectScene.LEVEL_PREFERENCE, ResourceManager.getInstance().activity.MODE_MULTI_PROCESS).edit().putInt(currentLevel+"_score", score).commit();
-	
-									setChildScene(gameWinScene());
-									pausedType = PausedType.PAUSED_GAMEWIN;
-								}
-							}
-						}
-					};
-					levelObject.setVisible(false);
-				}
-				else if (type.equals(TAG_ENTITY_ATTRIBUTE_TYPE_JUMP_TUTORIAL_TRIGGER)) {
-					if (!CleanWaterGame.getInstance().getSharedPreferences(TUTORIAL_PREFERENCE, ResourceManager.getInstance().activity.MODE_MULTI_PROCESS).getBoolean("jump_tutorial_done",  false)) {
-						levelObject = new Rectangle(x, y, width, height, vbom) {
-							@Override
-							protected void onManagedUpdate(float pSecondsElapsed) {
-								if (player.collidesWith(this)) {
-									this.setIgnoreUpdate(true);
-									CleanWaterGame.getInstance().getSharedPreferences(GameScene.TUTORIAL_PREFERENCE, ResourceManager.getInstance().activity.MODE_MULTI_PROCESS).edit().putBoolean("jump_tutorial_done", true).commit();
-									pausedType = PausedType.PAUSED_JUMPTUTORIAL;
-								}
-							}
-						};
-					} else {
-						levelObject = new Rectangle(1, 1, 1, 1, vbom);
-					}
-					levelObject.setVisible(false);
-				}
-				else if (type.equals(TAG_ENTITY_ATTRIBUTE_TYPE_DASH_TUTORIAL_TRIGGER)) {
-					if (!CleanWaterGame.getInstance().getSharedPreferences(TUTORIAL_PREFERENCE, ResourceManager.getInstance().activity.MODE_MULTI_PROCESS).getBoolean("dash_tutorial_done", false)) {
-						levelObject = new Rectangle(x, y, width, height, vbom) {
-							@Override
-							protected void onManagedUpdate(float pSecondsElapsed) {
-								if (player.collidesWith(this)) {
-									this.setIgnoreUpdate(true);
-									CleanWaterGame.getInstance().getSharedPreferences(GameScene.TUTORIAL_PREFERENCE, ResourceManager.getInstance().activity.MODE_MULTI_PROCESS).edit().putBoolean("dash_tutorial_done", true).commit();
-									pausedType = PausedType.PAUSED_DASHTUTORIAL;
-								}
-							}
-						};
-					} else {
-						levelObject = new Rectangle(1, 1, 1, 1, vbom);
-					}
-					levelObject.setVisible(false);
-				}
-
-                else if (type.equals(TAG_ENTITY_ATTRIBUTE_TYPE_ALLIGATOR)) {
-                    AnimatedSprite temp = new AnimatedSprite(x, y, resourcesManager.alligator_TR, vbom){
-                        @Override
-                        protected void onManagedUpdate(float pSecondsElapsed) {
-                            super.onManagedUpdate(pSecondsElapsed);
-                            if (player.collidesWith(this)) {
-                            	player.gameOver();
-                            	displayHealth(player.getHP());
-                            }
-                        }
-                    };
-                    temp.animate(100);
-                    levelObject = temp;
-                    PhysicsFactory.createBoxBody(physicsWorld, levelObject, BodyType.StaticBody, GROUND_FIX).setUserData("alligator");
-                    temp = null;
-                }
-				else if (type.equals(TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE)) {
-					levelObject = loadCollectable(x, y, resourcesManager.collectable_TR, 10, ResourceManager.getInstance().waterdropSound, false);
-				}
-				else if (type.equals(TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE_ACT1_SCENE2_GOALS)) {
-					levelObject = loadCollectable(x, y, resourcesManager.twine_TR, 40, ResourceManager.getInstance().collectSound, true);
-				}
-				else if (type.equals(TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE_ACT1_SCENE3_GOALS)) {
-					levelObject = loadCollectable(x, y, resourcesManager.stone_TR, 40, ResourceManager.getInstance().collectSound, true);
-				}
-				else if (type.equals(TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE_ACT1_SCENE4_GOALS)) {
-					levelObject = loadCollectable(x, y, resourcesManager.mud_TR, 40, ResourceManager.getInstance().collectSound, true);
-				}
-				else if (type.equals(TAG_ENTITY_ATTRIBUTE_TYPE_ITEM_COLLECTABLE_ACT1_SCENE5_GOALS)) {
-					levelObject = loadCollectable(x, y, resourcesManager.wood_TR, 40, ResourceManager.getInstance().collectSound, true);
-				} else {
-					throw new IllegalArgumentException();
+			public IEntity onSpawn(int index) {
+				//triggers are only in the trigger index
+				if ((level.getFlags(index) & LevelData.FLAG_NO_ENTITY) != 0) {
+					return null;
 				}
+				final IEntity levelObject = createLevelObject(entityTypeIds[level.getType(index)], level.getTypeName(level.getType(index)), origin.toSceneX(level.getX(index)), level.getY(index), level.getWidth(index), level.getHeight(index));
 
 				//disable rendering when not visible.
 				levelObject.setCullingEnabled(true);
 				levelObjects.add(levelObject);
-				return levelObject;
+				if (batchedTypes[level.getType(index)] && tileBatch.getChildCount() < TILE_BATCH_CAPACITY) {
+					tileBatch.attachChild(levelObject);
+				} else {
+					attachChild(levelObject);
+				}
+
+				//the player follows the camera, it is never despawned
+				return (levelObject == player) ? null : levelObject;
 			}
 
+			@Override
+			public void onDespawn(int index, IEntity levelObject) {
+				removeLevelObject(levelObject);
+			}
 		});
+		//spawn the first screen now so the player and the ground exist before the first physics step
+		levelStreamer.onUpdate(0);
+		registerUpdateHandler(levelStreamer);
+
+		//once a frame after the physics step the sensors the player reached fire, once each. The solid entities
+		//have bodies and get the contact events instead
+		triggerIndex = new TriggerIndex<IEntity>(level, levelStreamer, origin, player, new ITriggerListener<IEntity>() {
+			@Override
+			public void onTrigger(int index, IEntity levelObject) {
+				if (Trace.DEBUG) {
+					Trace.event(Trace.TRIGGER, entityTypeIds[level.getType(index)], index, (int) player.getX());
+				}
+				entityFactory.onTrigger(entityTypeIds[level.getType(index)], levelObject);
+			}
+		});
+		triggerIndex.setReach(TRIGGER_REACH);
+		registerUpdateHandler(triggerIndex);
+
+		registerUpdateHandler(new IUpdateHandler() {
+			@Override
+			public void onUpdate(float pSecondsElapsed) {
+				retireFallenPlatforms();
+			}
+
+			@Override
+			public void reset() {
+			}
+		});
+
+		registerUpdateHandler(bodyActivator);
 
-		levelLoader.loadLevelFromAsset(activity.getAssets(), "level/" + levelID + ".xml");
+		//last, so everything removed this frame is gone before it is drawn and before the next step
+		registerUpdateHandler(destructionQueue);
 	}
 
-    private Sprite loadCollectable(float x, float y, ITextureRegion region, final int s, final Sound sound, final boolean goal) {
-    	Sprite sprite = new Sprite(x, y, region, vbom) {
+    /**
+     * Merges the bodies of the static tiles (see ColliderMerger), the tile sprites themselves are created without bodies
+     */
+    private MergedColliders mergeColliders() {
+    	final ITextureRegion[] tileRegions = { resourcesManager.hill_TR, resourcesManager.ground_TR, resourcesManager.floating_platform_ground_TR };
+    	final int[] tileWidths = new int[tileRegions.length];
+    	final int[] tileHeights = new int[tileRegions.length];
+    	for (int i = 0; i < tileRegions.length; i++) {
+    		tileWidths[i] = (int) tileRegions[i].getWidth();
+    		tileHeights[i] = (int) tileRegions[i].getHeight();
+    	}
+    	return ColliderMerger.merge(level, MERGED_TILE_TYPES, tileWidths, tileHeights, MERGED_TILE_COLLIDERS, MAX_COLLIDER_WIDTH);
+    }
+
+    /**
+     * Streams the colliders like the level objects.
+     * Each group becomes one static body with a box fixture for each of its boxes.
+     */
+    private void loadColliders() {
+    	final LevelData groups = colliders.getGroups();
+    	final LevelData boxes = colliders.getBoxes();
+    	colliderStreamer = new LevelStreamer<Body>(groups, camera, origin, new ISpawner<Body>() {
+    		private final BodyDef bodyDef = new BodyDef();
+    		private final Vector2 boxCenter = new Vector2();
+
     		@Override
-    		protected void onManagedUpdate(float pSecondsElapsed) {
-				super.onManagedUpdate(pSecondsElapsed);
-
-				if (player.collidesWith(this)) {
-					if (!ResourceManager.getInstance().isMuted()) {
-						sound.play();
-					}
-					if (goal) {
-						addToCollectable();
-					}
-					addToScore(s);
-					this.setVisible(false);
-					this.setIgnoreUpdate(true);
-				}
-			}
-    	};
+    		public Body onSpawn(int group) {
+    			final float groupX = groups.getX(group);
+    			final float groupY = groups.getY(group);
+    			bodyDef.type = BodyType.StaticBody;
+    			bodyDef.position.set(origin.toSceneX(groups.getX(group)) / PhysicsConstants.PIXEL_TO_METER_RATIO_DEFAULT, groupY / PhysicsConstants.PIXEL_TO_METER_RATIO_DEFAULT);
+    			final Body body = physicsWorld.createBody(bodyDef);
+
+    			final PolygonShape shape = new PolygonShape();
+    			for (int box = colliders.getFirstBox(group); box < colliders.getEndBox(group); box++) {
+    				boxCenter.set((boxes.getX(box) - groupX) / PhysicsConstants.PIXEL_TO_METER_RATIO_DEFAULT, (boxes.getY(box) - groupY) / PhysicsConstants.PIXEL_TO_METER_RATIO_DEFAULT);
+    				shape.setAsBox(boxes.getWidth(box) * 0.5f / PhysicsConstants.PIXEL_TO_METER_RATIO_DEFAULT, boxes.getHeight(box) * 0.5f / PhysicsConstants.PIXEL_TO_METER_RATIO_DEFAULT, boxCenter, 0);
+    				GROUND_FIX.shape = shape;
+    				body.createFixture(GROUND_FIX);
+    			}
+    			shape.dispose();
+    			GROUND_FIX.shape = null;
 
-    	sprite.registerEntityModifier(new LoopEntityModifier(new ScaleModifier(1, 1, 1.3f)));
-    	return sprite;
+    			body.setUserData(groups.getTypeName(groups.getType(group)));
+    			bodyActivator.track(body, groups.getWidth(group) * 0.5f, null);
+    			return body;
+    		}
+
+    		@Override
+    		public void onDespawn(int group, Body body) {
+    			bodyActivator.untrack(body);
+    			destructionQueue.destroy(body);
+    		}
+    	});
+    	colliderStreamer.onUpdate(0);
+    	registerUpdateHandler(colliderStreamer);
     }
 
     /**
-     * Method for detecting the left side of a box IEntity object
+     * Moves all the bodies and everything attached to the scene back to the left, in one pass before the streamers run.
+     * The FloatingOrigin moves the camera after this.
+     * @param shift : pixels to move, a whole number of meters
      */
-    private boolean detectSideCollision(Player player, IEntity object) {
-    	if ( ((player.getX() + player.getWidth()/2.0) + COLLISION_THRESHOLD) > (object.getX() - object.getWidth() / 2.0) &&
-				(player.getX() + player.getWidth()/2.0) < (object.getX() + object.getWidth() / 2.0) &&
-				((player.getY() - player.getHeight()/2.0) + COLLISION_THRESHOLD) < (object.getY() + object.getHeight()/2.0) &&
-				((player.getY() + player.getHeight()/2.0) - COLLISION_THRESHOLD) > (object.getY() - object.getHeight() / 2.0) ) {
-			System.out.println("SIDE COLLISION");
-			System.out.println("x positions: " + ((player.getX() + player.getWidth()/2.0) + COLLISION_THRESHOLD) + "  > " + (object.getX() - object.getWidth() / 2.0));
-			System.out.println(((player.getX() + player.getWidth()/2.0)) + "  < " + (object.getX() + object.getWidth() / 2.0));
-			System.out.println(((player.getY() - player.getHeight()/2.0) - COLLISION_THRESHOLD) + "   < " + (object.getY() + object.getHeight()/2.0));
-			System.out.println(((player.getY() + player.getHeight()/2.0) + COLLISION_THRESHOLD) + "   > " + ((object.getY() - object.getHeight() / 2.0)));
-
-			return true;
-		}
-    	return false;
+    private void shiftWorld(int shift) {
+    	final float shiftMeters = shift / PhysicsConstants.PIXEL_TO_METER_RATIO_DEFAULT;
+    	final Iterator<Body> bodies = physicsWorld.getBodies();
+    	while (bodies.hasNext()) {
+    		final Body body = bodies.next();
+    		final Vector2 position = body.getPosition();
+    		body.setTransform(position.x - shiftMeters, position.y, body.getAngle());
+    	}
+    	if (physicsWorld instanceof InterpolatedPhysicsWorld) {
+    		((InterpolatedPhysicsWorld) physicsWorld).translateSnapshot(-shiftMeters);
+    	}
+
+    	//the physics connectors would catch the sprites up on the next step, moved now so they are drawn in the right place this frame
+    	for (int i = 0; i < getChildCount(); i++) {
+    		final IEntity child = getChildByIndex(i);
+    		if (child == tileBatch) {
+    			//the batch stays at the origin, its tiles are moved so they keep small coordinates too
+    			for (int t = 0; t < tileBatch.getChildCount(); t++) {
+    				final IEntity tile = tileBatch.getChildByIndex(t);
+    				tile.setX(tile.getX() - shift);
+    			}
+    		} else {
+    			child.setX(child.getX() - shift);
+    		}
+    	}
     }
 
     /**
-     * Method for detecting the top side of a box IEntity object
+     * Takes out a level object that scrolled off screen or was used up. It is detached, its body destroyed and it is
+     * recycled by the destruction queue at the end of the frame
      */
-    private boolean detectTopCollision(Player player, IEntity object) {
-    	if ( ((player.getX() + player.getWidth()/2.0) + COLLISION_THRESHOLD) > (object.getX() - object.getWidth() / 2.0) &&
-				(player.getX() - player.getWidth()/2.0) < (object.getX() + object.getWidth() / 2.0) &&
-				(player.getY() - player.getHeight()/2.0) < (object.getY() + object.getHeight()/2.0 + COLLISION_THRESHOLD) &&
-				(player.getY() - player.getHeight()/2.0) > (object.getY() + object.getHeight()/2.0 - COLLISION_THRESHOLD)) {
-    		return true;
+    private void removeLevelObject(IEntity levelObject) {
+    	if (levelObject instanceof FallingPlatform) {
+    		final FallingPlatform platform = (FallingPlatform) levelObject;
+    		bodyActivator.untrack(platform.body);
+    		//a fall still waiting must not touch the body once it is queued
+    		platform.release();
+    		destructionQueue.destroy(platform, platform.body, platform.getConnector());
+    		fallingPlatforms.remove(platform);
+    	} else if (levelObject.getUserData() instanceof Body) {
+    		bodyActivator.untrack((Body) levelObject.getUserData());
+    		destructionQueue.destroy(levelObject, (Body) levelObject.getUserData(), null);
+    	} else {
+    		destructionQueue.destroy(levelObject, null, null);
     	}
-    	return false;
+    	levelObjects.remove(levelObject);
     }
 
+    /**
+     * Builds the entity for one level record, everything but the player comes from the entity factory's pools
+     * @param typeId : the type id in the entity factory
+     */
+	private IEntity createLevelObject(short typeId, String type, int x, int y, int width, int height) {
+		if (typeId != EntityFactory.UNKNOWN_TYPE) {
+			return entityFactory.obtain(typeId, x, y, width, height);
+		}
+		else if (type.equals(TAG_ENTITY_ATTRIBUTE_TYPE_VALUE_PLAYER)) {
+			player = new Player(x, y, vbom, camera, physicsWorld, 4, resourcesManager.player_TR) {
+
+				@Override
+				public void onDie() {
+                    isDone = true;
+                    displayHealth(player.getHP());
+					pausedType = PausedType.PAUSED_GAMEOVER;
+					camera.setChaseEntity(null);
+				}
+			};
+			contactEvents.setSubject(player.body);
+			return player;
+		} else {
+			throw new IllegalArgumentException("Unknown entity type " + type);
+		}
+	}
+
+	Player getPlayer() {
+		return player;
+	}
+
+	PhysicsWorld getPhysicsWorld() {
+		return physicsWorld;
+	}
+
+	/**
+	 * The entity types track the bodies they create with it, the scene untracks them when they are despawned
+	 */
+	BodyActivator getBodyActivator() {
+		return bodyActivator;
+	}
+
+	void onPlatformFall(FallingPlatform platform) {
+		fallingPlatforms.add(platform);
+	}
+
+	/**
+	 * Despawns the falling platforms that are out of sight below the camera, instead of letting them fall until
+	 * they scroll off. Their bodies are destroyed and the sprites go back to the pool
+	 */
+	private void retireFallenPlatforms() {
+		for (int i = fallingPlatforms.size() - 1; i >= 0; i--) {
+			final FallingPlatform platform = fallingPlatforms.get(i);
+			if (platform.getY() + platform.getHeight() * 0.5f < camera.getYMin()) {
+				levelStreamer.despawnSpawned(platform);
+			}
+		}
+	}
+
+	/**
+	 * Hurts the player and bounces them back, they ran into the side of something
+	 */
+	void onSideHit() {
+		player.bounceBack();
+		player.decrementHP();
+		if (Trace.INFO) {
+			Trace.event(Trace.HIT, player.getHP(), (int) player.getX(), (int) player.getY());
+		}
+		displayHealth(player.getHP());
+	}
+
+	void onAlligatorCollision() {
+		player.gameOver();
+		displayHealth(player.getHP());
+	}
+
+	/**
+	 * @param points : added to the score
+	 * @param goal : whether it counts towards the level's collectable goal
+	 */
+	void onCollect(int points, boolean goal) {
+		if (!ResourceManager.getInstance().isMuted()) {
+			if (goal) {
+				ResourceManager.getInstance().collectSound.play();
+			} else {
+				ResourceManager.getInstance().waterdropSound.play();
+			}
+		}
+		if (goal) {
+			addToCollectable();
+		}
+		addToScore(points);
+	}
+
+	void onWinTrigger() {
+		if (hasCollectables() && collectableCount < COLLECTABLE_COUNT_GOAL) {
+			pausedType = PausedType.PAUSED_GAMEOVER;
+		} else {
+			if (levelInfo != null) {
+				LevelManager.getInstance().onLevelWon(levelInfo, score, collectableCount);
+			}
+			pausedType = PausedType.PAUSED_GAMEWIN;
+		}
+	}
+
+	boolean isTutorialDone(String preference) {
+		return CleanWaterGame.getInstance().getSharedPreferences(TUTORIAL_PREFERENCE, ResourceManager.getInstance().activity.MODE_MULTI_PROCESS).getBoolean(preference, false);
+	}
+
+	void onTutorialTrigger(String preference, PausedType tutorial) {
+		CleanWaterGame.getInstance().getSharedPreferences(GameScene.TUTORIAL_PREFERENCE, ResourceManager.getInstance().activity.MODE_MULTI_PROCESS).edit().putBoolean(preference, true).commit();
+		pausedType = tutorial;
+	}
+
 	@Override
 	public boolean onSceneTouchEvent(Scene pScene, TouchEvent pSceneTouchEvent) {
 		if (this.physicsWorld != null) {
@@ -703,15 +976,18 @@ public class GameScene extends BaseScene implements IOnSceneTouchListener, IOnMe
 	 */
     private void performPlayerAction(float difX, float difY, double moveDistance) {
         if (difY > 0 && Math.abs(difY) > Math.abs(difX) || moveDistance <= TAP_THRESHOLD) {
-            player.jump();
+            engine.runOnUpdateThread(jumpAction);
         } else if (difX > 0 && difX > Math.abs(difY)) {
         	if (!currentLevel.equals("act1scene1") && !currentLevel.equals("act1scene2"))
-        		player.dash();
+        		engine.runOnUpdateThread(dashAction);
         }
     }
 
 	@Override
 	public boolean onMenuItemClicked(MenuScene pMenuScene, IMenuItem pMenuItem,	float pMenuItemLocalX, float pMenuItemLocalY) {
+		if (Trace.INFO) {
+			Trace.event(Trace.MENU, pMenuItem.getID());
+		}
 		switch (pMenuItem.getID()) {
 			case MENU_RESUME:
 				clearChildScene();
@@ -729,9 +1005,7 @@ public class GameScene extends BaseScene implements IOnSceneTouchListener, IOnMe
 			case MENU_RESTART:
 				CleanWaterGame.getInstance().pauseGameMusic();
 				clearChildScene();
-				disposeScene();
-				ResourceManager.getInstance().unloadGameGraphics();
-				SceneManager.getInstance().loadGameScene(engine, currentLevel, nextLevel);
+				SceneManager.getInstance().loadGameScene(engine, currentLevel);
 				pausedType = PausedType.PAUSED_OFF;
                 isDone = false;
 				return true;
@@ -743,26 +1017,13 @@ public class GameScene extends BaseScene implements IOnSceneTouchListener, IOnMe
 				}
 				return true;
 			case MENU_NEXT:
-				if (nextLevel != null) {
-					System.out.println(nextLevel);
-					if (nextLevel.equals("act1scene2")) {
-						SceneManager.getInstance().createAnimationScene(Animation.SCENE_TWO);
-						SceneManager.getInstance().loadAnimationScene(engine);
-					} else if (nextLevel.equals("act1scene3")) {
-						SceneManager.getInstance().createAnimationScene(Animation.SCENE_THREE);
-						SceneManager.getInstance().loadAnimationScene(engine);
-					} else if (nextLevel.equals("act1scene4")) {
-						SceneManager.getInstance().loadGameScene(engine, "act1scene4", "act1scene5");
-					} else if (nextLevel.equals("act1scene5")) {
-						SceneManager.getInstance().loadGameScene(engine, "act1scene5", null);
-					}else {
-						System.out.println("Invalid file detected");
-					}
+				if (levelInfo == null) {
+					return true;
+				}
+				if (levelInfo.getNext() != null) {
+					SceneManager.getInstance().startLevel(engine, levelInfo.getNext());
 				} else {
-					if (currentLevel.equals("act1scene5")) {
-						SceneManager.getInstance().createAnimationScene(Animation.SCENE_FOUR);
-						SceneManager.getInstance().loadAnimationScene(engine);
-					}
+					SceneManager.getInstance().endAct(engine, levelInfo.getAct());
 				}
 				return true;
 			default:
@@ -916,31 +1177,69 @@ public class GameScene extends BaseScene implements IOnSceneTouchListener, IOnMe
 
 	@Override
 	protected void onManagedUpdate(float pSecondsElapsed) {
-		switch (pausedType) {
-			case PAUSED_OFF:
-				super.onManagedUpdate(pSecondsElapsed);
-				break;
+		final PausedType paused = pausedType;
+		if (paused != shownPausedType) {
+			if (Trace.INFO) {
+				Trace.event(Trace.PAUSE, paused.ordinal(), shownPausedType.ordinal(), 0);
+			}
+			showOverlay(paused);
+			shownPausedType = paused;
+		}
+		if (paused == PausedType.PAUSED_OFF) {
+			super.onManagedUpdate(pSecondsElapsed);
+		}
+	}
+
+	/**
+	 * Puts up the overlay of a paused state, or takes it down. Only called when the state changes
+	 */
+	private void showOverlay(PausedType paused) {
+		final MenuScene overlay;
+		switch (paused) {
 			case PAUSED_GAMEOVER:
-				setChildScene(gameOverScene(), false, true, true);
-				return;
-			case PAUSED_ON:
-				setChildScene(pauseScene(), false, true, true);
-				return;
+				if (gameOverMenu == null) {
+					gameOverMenu = gameOverScene();
+				}
+				overlay = gameOverMenu;
+				break;
 			case PAUSED_GAMEWIN:
-//				setChildScene(gameWinScene());
-				return;
+				if (gameWinMenu == null) {
+					gameWinMenu = gameWinScene();
+				}
+				overlay = gameWinMenu;
+				break;
+			case PAUSED_ON:
+				if (pauseMenu == null) {
+					pauseMenu = pauseScene();
+				}
+				overlay = pauseMenu;
+				break;
 			case PAUSED_JUMPTUTORIAL:
-				setChildScene(jumpTutorialScene(), false, true, true);
-				return;
+				if (jumpTutorialMenu == null) {
+					jumpTutorialMenu = jumpTutorialScene();
+				}
+				overlay = jumpTutorialMenu;
+				break;
 			case PAUSED_DASHTUTORIAL:
-				setChildScene(dashTutorialScene(), false, true, true);
-				return;
+				if (dashTutorialMenu == null) {
+					dashTutorialMenu = dashTutorialScene();
+				}
+				overlay = dashTutorialMenu;
+				break;
 			default:
-				super.onManagedUpdate(pSecondsElapsed);
+				overlay = null;
+		}
+		if (overlay != null) {
+			setChildScene(overlay, false, true, true);
+		} else if (hasChildScene()) {
+			clearChildScene();
 		}
 	}
 
+	/**
+	 * @return whether the level has a goal item that has to be collected to win
+	 */
 	private boolean hasCollectables(){
-		return (currentLevel != "act1scene1");
+		return levelInfo != null && levelInfo.getGoalType() != null;
 	}
 }
\ No newline at end of file